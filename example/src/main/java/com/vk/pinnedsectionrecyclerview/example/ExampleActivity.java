@@ -5,7 +5,6 @@ import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.GridLayoutManager;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -15,7 +14,9 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.vk.pinnedsectionrecyclerview.PinnedSectionIndexBar;
 import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView;
+import com.vk.pinnedsectionrecyclerview.SectionIndexAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -56,6 +57,9 @@ public class ExampleActivity extends AppCompatActivity {
 
         mPinnedRecyclerView.setAdapter(myAdapter);
 
+        new PinnedSectionIndexBar().attachToRecyclerView(mPinnedRecyclerView,
+                mPinnedRecyclerView.getPinnedSectionDecoration());
+
     }
 
     private void updateLayoutManager(int mode){
@@ -185,7 +189,7 @@ public class ExampleActivity extends AppCompatActivity {
         }
     };
 
-    class MyAdapter extends RecyclerView.Adapter<MyAdapter.MyViewHolder> implements PinnedSectionRecyclerView.Adapter{
+    class MyAdapter extends SectionIndexAdapter<MyAdapter.MyViewHolder> {
 
         @Override
         public MyAdapter.MyViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
@@ -223,14 +227,8 @@ public class ExampleActivity extends AppCompatActivity {
         }
 
         @Override
-        public int findSectionPosition(int position) {
-            return mList.get(position).sectionPosition;
-        }
-
-        @Override
-        public int findNextSectionPosition(int position) {
-            Log.d(TAG, "findNextSectionPosition: "+position+" , "+mList.get(position).toString());
-            return mList.get(position).nextSectionPosition;
+        public CharSequence getSectionLabel(int position) {
+            return mList.get(position).text;
         }
 
         class MyViewHolder extends RecyclerView.ViewHolder{
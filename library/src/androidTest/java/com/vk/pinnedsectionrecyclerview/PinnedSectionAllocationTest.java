@@ -0,0 +1,85 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.app.Instrumentation;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.LinearLayoutManager;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a scroll frame which keeps the same pinned section allocates nothing, also after the list crossed
+ * into other sections and after the pinned view was tapped.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionAllocationTest {
+
+    private static final int ITEM_COUNT = 1000;
+    private static final int SECTION_SIZE = 20;
+    private static final int SAMPLES = 10;
+    private static final int FRAMES = 100;
+
+    @Test
+    public void scrollFrame_doesNotAllocate() throws Exception {
+        assertFalse("disable logging: adb shell setprop log.tag." + PinnedSectionRecyclerView.TAG + " INFO",
+                PinnedSectionRecyclerView.DEBUG);
+
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final long[] allocCount = new long[1];
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                PinnedSectionRecyclerView recyclerView =
+                        new PinnedSectionRecyclerView(InstrumentationRegistry.getTargetContext());
+                recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext()));
+                recyclerView.setAdapter(new SyntheticSectionAdapter(ITEM_COUNT, SECTION_SIZE));
+                recyclerView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+                recyclerView.layout(0, 0, 1080, 1920);
+                PinnedSectionDecoration decoration = recyclerView.getPinnedSectionDecoration();
+
+                // warm up: create the pinned section
+                recyclerView.scrollBy(0, 10);
+                recyclerView.checkOnScrolled();
+                int sectionHeight = SECTION_SIZE * recyclerView.getChildAt(1).getHeight();
+
+                // a tap on the pinned view, at the top edge, and a move over the rows while the list is dragged
+                long time = SystemClock.uptimeMillis();
+                MotionEvent down = MotionEvent.obtain(time, time, MotionEvent.ACTION_DOWN, 100, 5, 0);
+                MotionEvent up = MotionEvent.obtain(time, time, MotionEvent.ACTION_UP, 100, 5, 0);
+                MotionEvent move = MotionEvent.obtain(time, time, MotionEvent.ACTION_MOVE, 100, 960, 0);
+
+                Debug.startAllocCounting();
+                for (int sample = 0; sample < SAMPLES; sample++) {
+                    // not counted: crossing into the next section binds another pinned view, a tap runs the gesture
+                    recyclerView.scrollBy(0, sectionHeight);
+                    recyclerView.checkOnScrolled();
+                    assertEquals((sample + 1) * SECTION_SIZE, recyclerView.getPinnedSectionPosition());
+                    assertTrue(decoration.onInterceptTouchEvent(recyclerView, down));
+                    assertTrue(decoration.onInterceptTouchEvent(recyclerView, up));
+
+                    Debug.resetThreadAllocCount();
+                    for (int i = 0; i < FRAMES; i++) {
+                        recyclerView.checkOnScrolled();
+                        decoration.onInterceptTouchEvent(recyclerView, move);
+                    }
+                    allocCount[0] += Debug.getThreadAllocCount();
+                }
+                Debug.stopAllocCounting();
+
+                down.recycle();
+                up.recycle();
+                move.recycle();
+            }
+        });
+
+        assertEquals(0, allocCount[0]);
+    }
+}
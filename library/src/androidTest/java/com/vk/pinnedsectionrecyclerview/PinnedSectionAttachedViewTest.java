@@ -0,0 +1,99 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * With {@link PinnedSectionDecoration#setPinnedSectionAttachedViewEnabled(boolean)} the list's own section child is
+ * drawn while it is attached, and a pinned holder is only bound once it goes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionAttachedViewTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+    private static final int ROW_SIZE = 100;
+
+    // row 0 is scrolled out and recycled, section 0 stays pinned
+    private static final int SCROLL_PAST_SECTION_ROW = 5 * ROW_SIZE;
+
+    private PinnedSectionTestList mList;
+    private CountingAdapter mAdapter;
+
+    @Before
+    public void setUp() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter = new CountingAdapter();
+                mList = new PinnedSectionTestList(mAdapter);
+                mList.decoration.setPinnedSectionAttachedViewEnabled(true);
+                mList.pinFirstSection();
+            }
+        });
+    }
+
+    @Test
+    public void attachedChild_isDrawnUntilItDetaches() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                PinnedSectionDecoration.PinnedSection section = mList.decoration.mPinnedSection;
+                assertEquals(0, section.position);
+                assertTrue(section.attached);
+                assertSame(mList.recyclerView.findViewHolderForAdapterPosition(0), section.holder);
+                // only the list bound the section
+                assertEquals(1, mAdapter.sectionBinds);
+
+                mList.scrollBy(SCROLL_PAST_SECTION_ROW);
+                section = mList.decoration.mPinnedSection;
+                assertEquals(0, mList.decoration.getPinnedSectionPosition());
+                assertFalse(section.attached);
+                assertNull(section.holder.itemView.getParent());
+                assertEquals(2, mAdapter.sectionBinds);
+            }
+        });
+    }
+
+    @Test
+    public void disabling_switchesToPinnedHolder() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RecyclerView.ViewHolder child = mList.recyclerView.findViewHolderForAdapterPosition(0);
+                mList.decoration.setPinnedSectionAttachedViewEnabled(false);
+
+                PinnedSectionDecoration.PinnedSection section = mList.decoration.mPinnedSection;
+                assertFalse(section.attached);
+                assertNotSame(child, section.holder);
+                assertNull(section.holder.itemView.getParent());
+                // the list's own child stays where it is
+                assertSame(mList.recyclerView, child.itemView.getParent());
+            }
+        });
+    }
+
+    /**
+     * Counts the binds of section 0
+     */
+    private static class CountingAdapter extends SyntheticSectionAdapter {
+        int sectionBinds;
+
+        CountingAdapter() {
+            super(ITEM_COUNT, SECTION_SIZE, ROW_SIZE);
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            super.onBindViewHolder(holder, position);
+            if (position == 0) sectionBinds++;
+        }
+    }
+}
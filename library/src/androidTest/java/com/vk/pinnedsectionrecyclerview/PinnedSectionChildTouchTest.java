@@ -0,0 +1,172 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Taps and long presses on a clickable child of the pinned view, inside a container that is not clickable.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionChildTouchTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+    private static final int SECTION_HEIGHT = 100;
+
+    // inside the button of the pinned view, which rests at the top edge
+    private static final float X = 100;
+    private static final float Y = SECTION_HEIGHT / 2;
+
+    private PinnedSectionTestList mList;
+    private int mClicks;
+    private int mLongClicks;
+    private int mSectionClicks;
+    private View mClickedView;
+
+    @Before
+    public void setUp() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mList = new PinnedSectionTestList(new NestedButtonAdapter());
+                mList.decoration.setOnPinnedSectionTouchListener(new PinnedSectionRecyclerView.OnPinnedSectionTouchListener() {
+                    @Override
+                    public void onClick(View pinnedItemView, int position) {
+                        mSectionClicks++;
+                    }
+
+                    @Override
+                    public void onLongClick(View pinnedItemView, int position) {
+                        mSectionClicks++;
+                    }
+                });
+                mList.pinFirstSection();
+            }
+        });
+        assertEquals(0, mList.getPinnedSectionPositionOnMainSync());
+    }
+
+    @Test
+    public void tap_clicksNestedChild() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(downTime, MotionEvent.ACTION_DOWN);
+        assertTrue(isPressed());
+        dispatch(downTime, MotionEvent.ACTION_UP);
+
+        assertEquals(1, mClicks);
+        assertEquals(0, mSectionClicks);
+        assertFalse(isPressed());
+        // the click went to the pinned view, not to the section row below it
+        assertFalse(isListChild(mClickedView));
+
+        SystemClock.sleep(ViewConfiguration.getLongPressTimeout() * 2);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertEquals(1, mClicks);
+        assertEquals(0, mLongClicks);
+    }
+
+    @Test
+    public void longPress_longClicksNestedChild() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(downTime, MotionEvent.ACTION_DOWN);
+        SystemClock.sleep(ViewConfiguration.getLongPressTimeout() * 2);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        dispatch(downTime, MotionEvent.ACTION_UP);
+
+        assertEquals(1, mLongClicks);
+        assertEquals(0, mClicks);
+        assertEquals(0, mSectionClicks);
+        assertFalse(isPressed());
+    }
+
+    private void dispatch(final long downTime, final int action) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mList.dispatchTouchEvent(downTime, action, X, Y);
+            }
+        });
+    }
+
+    /**
+     * @return true if the button of the pinned view is pressed
+     */
+    private boolean isPressed() {
+        final boolean[] pressed = new boolean[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                View itemView = mList.decoration.mPinnedSection.holder.itemView;
+                pressed[0] = ((ViewGroup) ((ViewGroup) itemView).getChildAt(0)).getChildAt(0).isPressed();
+            }
+        });
+        return pressed[0];
+    }
+
+    private boolean isListChild(View view) {
+        while (view.getParent() instanceof View) {
+            if (view.getParent() == mList.recyclerView) return true;
+            view = (View) view.getParent();
+        }
+        return false;
+    }
+
+    /**
+     * Sections are a clickable button in a plain container in a plain layout
+     */
+    private class NestedButtonAdapter extends SyntheticSectionAdapter {
+
+        NestedButtonAdapter() {
+            super(ITEM_COUNT, SECTION_SIZE);
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            if (viewType != 1) return super.onCreateViewHolder(parent, viewType);
+            LinearLayout layout = new LinearLayout(parent.getContext());
+            layout.setLayoutParams(new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, SECTION_HEIGHT));
+            FrameLayout container = new FrameLayout(parent.getContext());
+            layout.addView(container, new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            View button = new View(parent.getContext());
+            button.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    mClicks++;
+                    mClickedView = v;
+                }
+            });
+            button.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View v) {
+                    mLongClicks++;
+                    return true;
+                }
+            });
+            container.addView(button, new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            return new RecyclerView.ViewHolder(layout) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            if (!(holder.itemView instanceof LinearLayout)) super.onBindViewHolder(holder, position);
+        }
+    }
+}
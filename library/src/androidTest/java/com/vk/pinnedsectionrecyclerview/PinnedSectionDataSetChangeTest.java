@@ -0,0 +1,70 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * After {@code notifyDataSetChanged()} the pinned section is looked up again once the list is laid out, instead of
+ * being trusted at its old position.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionDataSetChangeTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+
+    // rows scrolled past, the first visible row is in the first section before the change and in the second after it
+    private static final int SCROLLED_ROWS = 15;
+
+    private PinnedSectionTestList mList;
+    private SyntheticSectionAdapter mAdapter;
+
+    @Before
+    public void setUp() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter = new SyntheticSectionAdapter(ITEM_COUNT, SECTION_SIZE);
+                mList = new PinnedSectionTestList(mAdapter).pinFirstSection();
+                mList.scrollBy(SCROLLED_ROWS * mList.recyclerView.getChildAt(1).getHeight());
+            }
+        });
+        assertEquals(0, mList.getPinnedSectionPositionOnMainSync());
+    }
+
+    @Test
+    public void movedSection_isReplacedAfterLayout() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.setSectionSize(SECTION_SIZE / 2);
+                mAdapter.notifyDataSetChanged();
+                mList.layout();
+            }
+        });
+        assertEquals(SECTION_SIZE / 2, mList.getPinnedSectionPositionOnMainSync());
+    }
+
+    @Test
+    public void unchangedSection_keepsPinnedHolder() throws Exception {
+        final RecyclerView.ViewHolder[] holders = new RecyclerView.ViewHolder[2];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                holders[0] = mList.decoration.mPinnedSection.holder;
+                mAdapter.notifyDataSetChanged();
+                mList.layout();
+                holders[1] = mList.decoration.mPinnedSection.holder;
+            }
+        });
+        assertEquals(0, mList.getPinnedSectionPositionOnMainSync());
+        assertSame(holders[0], holders[1]);
+    }
+}
@@ -0,0 +1,160 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.vk.pinnedsectionrecyclerview.PinnedSectionTestList.SCROLL;
+import static org.junit.Assert.*;
+
+/**
+ * Rows a wrapper adapter puts before the section adapter are never pinned, and the pinned section is reported at
+ * its position in the list while it is looked up in the section adapter.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionHeaderMappingTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+    private static final int ROW_SIZE = 100;
+    private static final int HEADER_COUNT = 2;
+
+    private PinnedSectionTestList mList;
+    private HeaderAdapter mAdapter;
+    private PinnedSectionRecyclerView.HeaderPositionMapping mMapping;
+
+    @Before
+    public void setUp() throws Exception {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SyntheticSectionAdapter sectionAdapter = new SyntheticSectionAdapter(ITEM_COUNT, SECTION_SIZE, ROW_SIZE);
+                mAdapter = new HeaderAdapter(sectionAdapter, HEADER_COUNT);
+                mMapping = new PinnedSectionRecyclerView.HeaderPositionMapping(sectionAdapter, HEADER_COUNT);
+                mList = new PinnedSectionTestList(mAdapter);
+                mList.decoration.setPositionMapping(mMapping);
+                mList.pinFirstSection();
+            }
+        });
+    }
+
+    @Test
+    public void headers_areNotPinned() throws Exception {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(RecyclerView.NO_POSITION, mList.decoration.getPinnedSectionPosition());
+
+                // the first section reaches the top
+                mList.scrollBy(HEADER_COUNT * ROW_SIZE);
+                assertPinned(HEADER_COUNT, 0, 0);
+
+                // back to the headers
+                mList.scrollBy(-HEADER_COUNT * ROW_SIZE);
+                assertEquals(RecyclerView.NO_POSITION, mList.decoration.getPinnedSectionPosition());
+            }
+        });
+    }
+
+    @Test
+    public void nextSection_isFoundAfterHeaders() throws Exception {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mList.scrollBy(HEADER_COUNT * ROW_SIZE);
+                assertPinned(HEADER_COUNT, 0, 0);
+
+                // the next section pushes half of the pinned one off
+                mList.scrollBy((SECTION_SIZE - 1) * ROW_SIZE + ROW_SIZE / 2 - SCROLL);
+                assertPinned(HEADER_COUNT, 0, -ROW_SIZE / 2);
+
+                mList.scrollBy(ROW_SIZE);
+                assertPinned(HEADER_COUNT + SECTION_SIZE, SECTION_SIZE, 0);
+            }
+        });
+    }
+
+    @Test
+    public void addedHeader_movesPinnedPosition() throws Exception {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mList.scrollBy(HEADER_COUNT * ROW_SIZE);
+                assertPinned(HEADER_COUNT, 0, 0);
+
+                // a header added right before the sections, the first section stays at the top
+                mAdapter.headerCount = HEADER_COUNT + 1;
+                mMapping.setHeaderCount(HEADER_COUNT + 1);
+                mAdapter.notifyItemInserted(HEADER_COUNT);
+                mList.layout();
+                mList.scrollBy(0);
+                assertPinned(HEADER_COUNT + 1, 0, 0);
+            }
+        });
+    }
+
+    /**
+     * @param position        position of the pinned section in the list
+     * @param sectionPosition position of the pinned section in the section adapter
+     * @param top             top of the pinned view in the list
+     */
+    private void assertPinned(int position, int sectionPosition, int top) {
+        assertEquals(position, mList.decoration.getPinnedSectionPosition());
+        assertEquals(sectionPosition, mList.decoration.mPinnedSection.position);
+        assertEquals(top, mList.decoration.mPinnedSection.top);
+    }
+
+    private static void runOnMainSync(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    /**
+     * Puts {@link #headerCount} rows before the section adapter, as a pull-to-refresh wrapper does
+     */
+    private static class HeaderAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private static final int TYPE_HEADER = 2;
+
+        int headerCount;
+
+        private final SyntheticSectionAdapter mSectionAdapter;
+
+        HeaderAdapter(SyntheticSectionAdapter sectionAdapter, int headerCount) {
+            mSectionAdapter = sectionAdapter;
+            this.headerCount = headerCount;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            if (viewType != TYPE_HEADER) return mSectionAdapter.onCreateViewHolder(parent, viewType);
+            TextView textView = new TextView(parent.getContext());
+            textView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_SIZE));
+            return new RecyclerView.ViewHolder(textView) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            if (position < headerCount) {
+                ((TextView) holder.itemView).setText("Header");
+            } else {
+                mSectionAdapter.onBindViewHolder(holder, position - headerCount);
+            }
+        }
+
+        @Override
+        public int getItemCount() {
+            return headerCount + mSectionAdapter.getItemCount();
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position < headerCount ? TYPE_HEADER : mSectionAdapter.getItemViewType(position - headerCount);
+        }
+    }
+}
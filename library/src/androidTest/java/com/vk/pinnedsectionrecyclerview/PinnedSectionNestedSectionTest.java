@@ -0,0 +1,116 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.vk.pinnedsectionrecyclerview.PinnedSectionTestList.SCROLL;
+import static org.junit.Assert.*;
+
+/**
+ * Nested sections are stacked below the outer one and pushed off by the next section of the same or an outer level.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionNestedSectionTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+    private static final int SUBSECTION_SIZE = 5;
+    private static final int ROW_SIZE = 100;
+
+    private int mOffset = SCROLL;
+
+    @Test
+    public void nestedSection_isStackedAndPushedOff() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                PinnedSectionTestList list = new PinnedSectionTestList(new TwoLevelAdapter()).pinFirstSection();
+                // rows 0-4 have no subsection
+                assertEquals(0, list.decoration.getPinnedSectionPosition());
+                assertNull(list.decoration.mNestedSections[0].holder);
+
+                // row 7 at the top: subsection 5 rests below section 0
+                scrollTo(list, 7 * ROW_SIZE + SCROLL);
+                assertStack(list, 0, 0, 5, ROW_SIZE);
+
+                // subsection 10 starts 150 below the top and pushes subsection 5 half off, section 0 stays
+                scrollTo(list, 10 * ROW_SIZE - 150);
+                assertStack(list, 0, 0, 5, ROW_SIZE / 2);
+
+                // section 20 starts 150 below the top: it pushes subsection 15, not section 0
+                scrollTo(list, 20 * ROW_SIZE - 150);
+                assertStack(list, 0, 0, 15, ROW_SIZE / 2);
+
+                // section 20 starts 50 below the top: it pushes section 0 half off, with subsection 15 behind it
+                scrollTo(list, 20 * ROW_SIZE - 50);
+                assertStack(list, 0, -ROW_SIZE / 2, 15, -ROW_SIZE / 2);
+
+                // section 20 is pinned alone, its first subsection is not reached yet
+                scrollTo(list, 20 * ROW_SIZE + SCROLL);
+                assertEquals(SECTION_SIZE, list.decoration.getPinnedSectionPosition());
+                assertNull(list.decoration.mNestedSections[0].holder);
+            }
+        });
+    }
+
+    /**
+     * @param offset distance of the list's top from the top of row 0
+     */
+    private void scrollTo(PinnedSectionTestList list, int offset) {
+        list.scrollBy(offset - mOffset);
+        mOffset = offset;
+    }
+
+    private static void assertStack(PinnedSectionTestList list, int position, int top, int nestedPosition, int nestedTop) {
+        PinnedSectionDecoration decoration = list.decoration;
+        assertEquals(position, decoration.getPinnedSectionPosition());
+        assertEquals(top, decoration.mPinnedSection.top);
+        PinnedSectionDecoration.PinnedSection nested = decoration.mNestedSections[0];
+        assertNotNull(nested.holder);
+        assertEquals(nestedPosition, nested.position);
+        assertEquals(nestedTop, nested.top);
+    }
+
+    /**
+     * Sections every {@link #SECTION_SIZE} rows, subsections every {@link #SUBSECTION_SIZE} rows between them
+     */
+    private static class TwoLevelAdapter extends SyntheticSectionAdapter
+            implements PinnedSectionRecyclerView.MultiLevelAdapter {
+
+        TwoLevelAdapter() {
+            super(ITEM_COUNT, SECTION_SIZE, ROW_SIZE);
+        }
+
+        @Override
+        public boolean isPinnedSectionItem(int position) {
+            return position % SUBSECTION_SIZE == 0;
+        }
+
+        @Override
+        public int getSectionLevelCount() {
+            return 2;
+        }
+
+        @Override
+        public int getSectionLevel(int position) {
+            return position % SECTION_SIZE == 0 ? 0 : 1;
+        }
+
+        @Override
+        public int findSectionPosition(int position, int level) {
+            if (level == 0) return findSectionPosition(position);
+            int subsection = position - position % SUBSECTION_SIZE;
+            return subsection % SECTION_SIZE == 0 ? -1 : subsection;
+        }
+
+        @Override
+        public int findNextSectionPosition(int position, int level) {
+            if (level == 0) return findNextSectionPosition(position);
+            int next = position - position % SUBSECTION_SIZE + SUBSECTION_SIZE;
+            return next < ITEM_COUNT ? next : -1;
+        }
+    }
+}
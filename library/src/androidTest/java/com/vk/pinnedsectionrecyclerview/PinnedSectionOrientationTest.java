@@ -0,0 +1,98 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.LinearLayoutManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.vk.pinnedsectionrecyclerview.PinnedSectionTestList.HEIGHT;
+import static com.vk.pinnedsectionrecyclerview.PinnedSectionTestList.SCROLL;
+import static com.vk.pinnedsectionrecyclerview.PinnedSectionTestList.WIDTH;
+import static org.junit.Assert.*;
+
+/**
+ * The pinned view rests at the edge the layout fills from and is pushed off towards it, along either axis.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionOrientationTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+    private static final int ROW_SIZE = 100;
+
+    // scroll that makes the next section push half of the pinned one off
+    private static final int PUSH_HALF = (SECTION_SIZE - 1) * ROW_SIZE + ROW_SIZE / 2 - SCROLL;
+
+    @Test
+    public void reverseVertical_pinsToBottomEdge() throws Exception {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                PinnedSectionTestList list = createList(LinearLayoutManager.VERTICAL, true);
+                assertPinned(list, 0, 0, HEIGHT - ROW_SIZE);
+
+                list.scrollBy(-PUSH_HALF);
+                assertPinned(list, 0, 0, HEIGHT - ROW_SIZE / 2);
+
+                list.scrollBy(-ROW_SIZE);
+                assertPinned(list, SECTION_SIZE, 0, HEIGHT - ROW_SIZE);
+            }
+        });
+    }
+
+    @Test
+    public void horizontal_pinsToLeftEdge() throws Exception {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                PinnedSectionTestList list = createList(LinearLayoutManager.HORIZONTAL, false);
+                assertPinned(list, 0, 0, 0);
+
+                list.scrollBy(PUSH_HALF);
+                assertPinned(list, 0, -ROW_SIZE / 2, 0);
+
+                list.scrollBy(ROW_SIZE);
+                assertPinned(list, SECTION_SIZE, 0, 0);
+            }
+        });
+    }
+
+    @Test
+    public void reverseHorizontal_pinsToRightEdge() throws Exception {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                PinnedSectionTestList list = createList(LinearLayoutManager.HORIZONTAL, true);
+                assertPinned(list, 0, WIDTH - ROW_SIZE, 0);
+
+                list.scrollBy(-PUSH_HALF);
+                assertPinned(list, 0, WIDTH - ROW_SIZE / 2, 0);
+
+                list.scrollBy(-ROW_SIZE);
+                assertPinned(list, SECTION_SIZE, WIDTH - ROW_SIZE, 0);
+            }
+        });
+    }
+
+    private static PinnedSectionTestList createList(int orientation, boolean reverse) {
+        return new PinnedSectionTestList(new SyntheticSectionAdapter(ITEM_COUNT, SECTION_SIZE, ROW_SIZE),
+                new LinearLayoutManager(InstrumentationRegistry.getTargetContext(), orientation, reverse))
+                .pinFirstSection();
+    }
+
+    /**
+     * @param left left of the pinned view in the list
+     * @param top  top of the pinned view in the list
+     */
+    private static void assertPinned(PinnedSectionTestList list, int position, int left, int top) {
+        assertEquals(position, list.decoration.getPinnedSectionPosition());
+        assertEquals(left, list.decoration.mPinnedSection.left);
+        assertEquals(top, list.decoration.mPinnedSection.top);
+    }
+
+    private static void runOnMainSync(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+}
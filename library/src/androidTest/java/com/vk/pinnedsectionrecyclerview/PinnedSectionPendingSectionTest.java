@@ -0,0 +1,95 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * A placeholder pinned for a section that is not loaded yet is replaced once the page arrives, without a scroll.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionPendingSectionTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+
+    private PinnedSectionTestList mList;
+    private PagedAdapter mAdapter;
+
+    @Before
+    public void setUp() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter = new PagedAdapter(ITEM_COUNT, SECTION_SIZE);
+                mList = new PinnedSectionTestList(mAdapter).pinFirstSection();
+            }
+        });
+        assertEquals(RecyclerView.NO_POSITION, mList.getPinnedSectionPositionOnMainSync());
+    }
+
+    @Test
+    public void loadedPage_replacesPlaceholderAfterLayout() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.loaded = true;
+                mAdapter.notifyItemRangeChanged(0, ITEM_COUNT);
+                mList.layout();
+            }
+        });
+        assertEquals(0, mList.getPinnedSectionPositionOnMainSync());
+    }
+
+    @Test
+    public void changeWithoutPage_keepsPlaceholder() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.notifyItemRangeChanged(0, ITEM_COUNT);
+                mList.layout();
+            }
+        });
+        assertEquals(RecyclerView.NO_POSITION, mList.getPinnedSectionPositionOnMainSync());
+    }
+
+    /**
+     * Sections are pending until {@link #loaded} is set
+     */
+    private static class PagedAdapter extends SyntheticSectionAdapter
+            implements PinnedSectionRecyclerView.PagedSectionAdapter {
+
+        boolean loaded;
+
+        PagedAdapter(int itemCount, int sectionSize) {
+            super(itemCount, sectionSize);
+        }
+
+        @Override
+        public int findSectionPosition(int position) {
+            return loaded ? super.findSectionPosition(position) : SECTION_PENDING;
+        }
+
+        @Override
+        public int findNextSectionPosition(int position) {
+            return loaded ? super.findNextSectionPosition(position) : -1;
+        }
+
+        @Override
+        public int getPendingSectionViewType(int position) {
+            return 1;
+        }
+
+        @Override
+        public void onBindPendingSection(RecyclerView.ViewHolder holder, int position) {
+            ((TextView) holder.itemView).setText("");
+        }
+    }
+}
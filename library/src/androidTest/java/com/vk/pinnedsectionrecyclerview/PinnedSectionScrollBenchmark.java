@@ -0,0 +1,229 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.app.Instrumentation;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Bundle;
+import android.os.Debug;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.LinearLayoutManager;
+import android.util.Log;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures the pinned-section hot path over synthetic lists and fails when a budget is exceeded.
+ * <p>
+ * Run locally on a device with
+ * <pre>
+ * ./gradlew :library:connectedAndroidTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.vk.pinnedsectionrecyclerview.PinnedSectionScrollBenchmark
+ * </pre>
+ * The budgets in ns/op can be overridden with the {@code maxCheckNs}, {@code maxFrameNs}, {@code maxCrossingNs}
+ * and {@code maxDrawNs} runner arguments, e.g. set to a measured baseline plus a margin to gate a change.
+ * Results are logged under {@link #TAG} and sent as instrumentation status.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionScrollBenchmark {
+
+    private static final String TAG = "PinnedSectBenchmark";
+
+    /** {item count, section count} */
+    private static final int[][] LISTS = {
+            {1000, 10},
+            {100000, 1000},
+            {1000000, 50000},
+    };
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int SCROLL_STEP = 48;
+    private static final int WARMUP = 200;
+    private static final int OPS = 2000;
+    private static final int DRAW_OPS = 100;
+
+    private static final long DEFAULT_MAX_CHECK_NS = 20000;
+    private static final long DEFAULT_MAX_FRAME_NS = 2000000;
+    private static final long DEFAULT_MAX_CROSSING_NS = 4000000;
+    private static final long DEFAULT_MAX_DRAW_NS = 16000000;
+
+    @Test
+    public void scrollHotPath_staysWithinBudget() throws Exception {
+        assertFalse("disable logging: adb shell setprop log.tag." + PinnedSectionRecyclerView.TAG + " INFO",
+                PinnedSectionRecyclerView.DEBUG);
+
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        long maxCheckNs = getLong(arguments, "maxCheckNs", DEFAULT_MAX_CHECK_NS);
+        long maxFrameNs = getLong(arguments, "maxFrameNs", DEFAULT_MAX_FRAME_NS);
+        long maxCrossingNs = getLong(arguments, "maxCrossingNs", DEFAULT_MAX_CROSSING_NS);
+        long maxDrawNs = getLong(arguments, "maxDrawNs", DEFAULT_MAX_DRAW_NS);
+
+        for (int[] list : LISTS) {
+            Result result = run(list[0], list[0] / list[1]);
+            report(list[0], list[1], result);
+
+            String name = list[0] + " rows, " + list[1] + " sections: ";
+            assertEquals(name + "checkOnScrolled bytes/op", 0, result.checkBytes);
+            assertTrue(name + "checkOnScrolled " + result.checkNs + " ns/op", result.checkNs <= maxCheckNs);
+            assertTrue(name + "scroll frame " + result.frameNs + " ns/op", result.frameNs <= maxFrameNs);
+            assertTrue(name + "no section crossed", result.crossings > 0);
+            assertTrue(name + "section crossing " + result.crossingNs + " ns/op", result.crossingNs <= maxCrossingNs);
+            assertTrue(name + "draw " + result.drawNs + " ns/op", result.drawNs <= maxDrawNs);
+        }
+    }
+
+    private Result run(final int itemCount, final int sectionSize) {
+        final Result result = new Result();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                PinnedSectionRecyclerView recyclerView =
+                        new PinnedSectionRecyclerView(InstrumentationRegistry.getTargetContext());
+                recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext()));
+                recyclerView.setAdapter(new SyntheticSectionAdapter(itemCount, sectionSize));
+                layout(recyclerView);
+
+                measureCheckOnScrolled(recyclerView, result);
+                measureScrollFrames(recyclerView, result);
+                measureDraw(recyclerView, result);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * checkOnScrolled alone, on a frame that keeps the same pinned section
+     */
+    private static void measureCheckOnScrolled(PinnedSectionRecyclerView recyclerView, Result result) {
+        recyclerView.scrollBy(0, SCROLL_STEP);
+        for (int i = 0; i < WARMUP; i++) {
+            recyclerView.checkOnScrolled();
+        }
+
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPS; i++) {
+            recyclerView.checkOnScrolled();
+        }
+        result.checkNs = (System.nanoTime() - start) / OPS;
+        result.checkBytes = Debug.getThreadAllocSize() / OPS;
+        Debug.stopAllocCounting();
+    }
+
+    /**
+     * Whole scroll frames, split into frames that keep the pinned section and frames that cross into another one
+     */
+    private static void measureScrollFrames(PinnedSectionRecyclerView recyclerView, Result result) {
+        for (int i = 0; i < WARMUP; i++) {
+            scrollFrame(recyclerView);
+        }
+
+        long frameNs = 0, crossingNs = 0;
+        long frameBytes = 0, crossingBytes = 0;
+        int frames = 0;
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        for (int i = 0; i < OPS; i++) {
+            int pinnedPosition = recyclerView.getPinnedSectionPosition();
+            long bytes = Debug.getThreadAllocSize();
+            long start = System.nanoTime();
+            scrollFrame(recyclerView);
+            long ns = System.nanoTime() - start;
+            bytes = Debug.getThreadAllocSize() - bytes;
+
+            if (recyclerView.getPinnedSectionPosition() != pinnedPosition) {
+                result.crossings++;
+                crossingNs += ns;
+                crossingBytes += bytes;
+            } else {
+                frames++;
+                frameNs += ns;
+                frameBytes += bytes;
+            }
+        }
+        Debug.stopAllocCounting();
+
+        if (frames > 0) {
+            result.frameNs = frameNs / frames;
+            result.frameBytes = frameBytes / frames;
+        }
+        if (result.crossings > 0) {
+            result.crossingNs = crossingNs / result.crossings;
+            result.crossingBytes = crossingBytes / result.crossings;
+        }
+    }
+
+    private static void measureDraw(PinnedSectionRecyclerView recyclerView, Result result) {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < DRAW_OPS / 10; i++) {
+            recyclerView.draw(canvas);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < DRAW_OPS; i++) {
+            recyclerView.draw(canvas);
+        }
+        result.drawNs = (System.nanoTime() - start) / DRAW_OPS;
+        bitmap.recycle();
+    }
+
+    /**
+     * Scrolls one step, starting over from the top at the end of the list
+     */
+    private static void scrollFrame(PinnedSectionRecyclerView recyclerView) {
+        if (!recyclerView.canScrollVertically(1)) {
+            recyclerView.scrollToPosition(0);
+            layout(recyclerView);
+        }
+        recyclerView.scrollBy(0, SCROLL_STEP);
+    }
+
+    private static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static void report(int itemCount, int sectionCount, Result result) {
+        String prefix = itemCount + "x" + sectionCount + ".";
+        Bundle status = new Bundle();
+        status.putLong(prefix + "checkNs", result.checkNs);
+        status.putLong(prefix + "checkBytes", result.checkBytes);
+        status.putLong(prefix + "frameNs", result.frameNs);
+        status.putLong(prefix + "frameBytes", result.frameBytes);
+        status.putLong(prefix + "crossingNs", result.crossingNs);
+        status.putLong(prefix + "crossingBytes", result.crossingBytes);
+        status.putInt(prefix + "crossings", result.crossings);
+        status.putLong(prefix + "drawNs", result.drawNs);
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        instrumentation.sendStatus(0, status);
+
+        Log.i(TAG, String.format("%d rows, %d sections: checkOnScrolled %d ns/op %d B/op, "
+                        + "frame %d ns/op %d B/op, crossing %d ns/op %d B/op (%d), draw %d ns/op",
+                itemCount, sectionCount, result.checkNs, result.checkBytes, result.frameNs, result.frameBytes,
+                result.crossingNs, result.crossingBytes, result.crossings, result.drawNs));
+    }
+
+    private static long getLong(Bundle arguments, String key, long defaultValue) {
+        String value = arguments.getString(key);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    private static class Result {
+        long checkNs;
+        long checkBytes;
+        long frameNs;
+        long frameBytes;
+        long crossingNs;
+        long crossingBytes;
+        int crossings;
+        long drawNs;
+    }
+}
@@ -0,0 +1,106 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Plain {@link RecyclerView} with a {@link PinnedSectionDecoration}, laid out at a fixed size.
+ * <p>
+ * Create and use it on the main thread, except for {@link #getPinnedSectionPositionOnMainSync()}.
+ */
+class PinnedSectionTestList {
+
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+
+    // initial scroll of the list, the first section stays pinned
+    static final int SCROLL = 10;
+
+    final RecyclerView recyclerView;
+    final PinnedSectionDecoration decoration;
+
+    PinnedSectionTestList(RecyclerView.Adapter adapter) {
+        this(adapter, new LinearLayoutManager(InstrumentationRegistry.getTargetContext()));
+    }
+
+    /**
+     * The decoration is not attached until {@link #pinFirstSection()}, so it can be configured first
+     */
+    PinnedSectionTestList(RecyclerView.Adapter adapter, RecyclerView.LayoutManager layoutManager) {
+        recyclerView = new RecyclerView(InstrumentationRegistry.getTargetContext());
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        decoration = new PinnedSectionDecoration(recyclerView.getContext());
+    }
+
+    /**
+     * Attaches the decoration, lays the list out and scrolls it by {@link #SCROLL} away from the pinned edge
+     */
+    PinnedSectionTestList pinFirstSection() {
+        decoration.attachToRecyclerView(recyclerView);
+        layout();
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        boolean reverse = layoutManager instanceof LinearLayoutManager
+                && ((LinearLayoutManager) layoutManager).getReverseLayout();
+        scrollBy(reverse ? -SCROLL : SCROLL);
+        return this;
+    }
+
+    void layout() {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Scrolls along the orientation of the layout manager and updates the pinned section, as a scroll frame does
+     */
+    void scrollBy(int distance) {
+        if (recyclerView.getLayoutManager().canScrollVertically()) {
+            recyclerView.scrollBy(0, distance);
+        } else {
+            recyclerView.scrollBy(distance, 0);
+        }
+        decoration.checkOnScrolled();
+    }
+
+    /**
+     * Offers a DOWN at (x, y) to the decoration alone
+     *
+     * @return true if the decoration claimed the gesture
+     */
+    boolean intercept(float x, float y) {
+        long time = SystemClock.uptimeMillis();
+        MotionEvent event = MotionEvent.obtain(time, time, MotionEvent.ACTION_DOWN, x, y, 0);
+        boolean intercepted = decoration.onInterceptTouchEvent(recyclerView, event);
+        event.recycle();
+        return intercepted;
+    }
+
+    /**
+     * Dispatches an event of the gesture started at {@code downTime} through the list
+     */
+    void dispatchTouchEvent(long downTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        recyclerView.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * Called off the main thread
+     */
+    int getPinnedSectionPositionOnMainSync() {
+        final int[] position = new int[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                position[0] = decoration.getPinnedSectionPosition();
+            }
+        });
+        return position[0];
+    }
+}
@@ -0,0 +1,142 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Taps and long presses on the pinned view of a plain {@link RecyclerView}, which only offers the events after
+ * DOWN to {@link PinnedSectionDecoration#onInterceptTouchEvent}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionTouchTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+
+    // inside the pinned view, which rests at the top edge
+    private static final float X = 100;
+    private static final float Y = 5;
+
+    // distance dragged past the touch slop
+    private static final int DRAG = 20;
+
+    private PinnedSectionTestList mList;
+    private int mClicks;
+    private int mLongClicks;
+    private int mPosition = RecyclerView.NO_POSITION;
+
+    @Before
+    public void setUp() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mList = new PinnedSectionTestList(new SyntheticSectionAdapter(ITEM_COUNT, SECTION_SIZE));
+                mList.decoration.setOnPinnedSectionTouchListener(new PinnedSectionRecyclerView.OnPinnedSectionTouchListener() {
+                    @Override
+                    public void onClick(View pinnedItemView, int position) {
+                        mClicks++;
+                        mPosition = position;
+                    }
+
+                    @Override
+                    public void onLongClick(View pinnedItemView, int position) {
+                        mLongClicks++;
+                        mPosition = position;
+                    }
+                });
+                mList.pinFirstSection();
+            }
+        });
+        assertEquals(0, mList.getPinnedSectionPositionOnMainSync());
+    }
+
+    @Test
+    public void tap_clicksOnce_withoutLongPress() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(downTime, MotionEvent.ACTION_DOWN);
+        dispatch(downTime, MotionEvent.ACTION_UP);
+        assertEquals(1, mClicks);
+        assertEquals(0, mPosition);
+
+        // the long press queued on DOWN must have been cancelled by UP
+        SystemClock.sleep(ViewConfiguration.getLongPressTimeout() * 2);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertEquals(0, mLongClicks);
+
+        // the touch target was released: the next tap is claimed again
+        downTime = SystemClock.uptimeMillis();
+        dispatch(downTime, MotionEvent.ACTION_DOWN);
+        dispatch(downTime, MotionEvent.ACTION_UP);
+        assertEquals(2, mClicks);
+    }
+
+    @Test
+    public void longPress_longClicksWithoutClick() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(downTime, MotionEvent.ACTION_DOWN);
+        SystemClock.sleep(ViewConfiguration.getLongPressTimeout() * 2);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        dispatch(downTime, MotionEvent.ACTION_UP);
+
+        assertEquals(1, mLongClicks);
+        assertEquals(0, mClicks);
+        assertEquals(0, mPosition);
+    }
+
+    @Test
+    public void drag_scrollsListWithoutClick() throws Exception {
+        final int slop = ViewConfiguration.get(InstrumentationRegistry.getTargetContext()).getScaledTouchSlop();
+        final int[] tops = new int[2];
+        final int[] scrollState = new int[1];
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(downTime, MotionEvent.ACTION_DOWN);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                tops[0] = mList.recyclerView.getChildAt(1).getTop();
+            }
+        });
+
+        // the list drags itself once the finger passes its touch slop
+        dispatch(downTime, MotionEvent.ACTION_MOVE, Y - slop - DRAG);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                tops[1] = mList.recyclerView.getChildAt(1).getTop();
+                scrollState[0] = mList.recyclerView.getScrollState();
+            }
+        });
+        assertEquals(RecyclerView.SCROLL_STATE_DRAGGING, scrollState[0]);
+        assertEquals(tops[0] - DRAG, tops[1]);
+
+        SystemClock.sleep(ViewConfiguration.getLongPressTimeout() * 2);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        dispatch(downTime, MotionEvent.ACTION_UP, Y - slop - DRAG);
+        assertEquals(0, mClicks);
+        assertEquals(0, mLongClicks);
+    }
+
+    private void dispatch(long downTime, int action) {
+        dispatch(downTime, action, Y);
+    }
+
+    private void dispatch(final long downTime, final int action, final float y) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mList.dispatchTouchEvent(downTime, action, X, y);
+            }
+        });
+    }
+}
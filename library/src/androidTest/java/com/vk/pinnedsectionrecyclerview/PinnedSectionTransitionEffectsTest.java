@@ -0,0 +1,254 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.SectionTransition;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Properties set by each of {@link PinnedSectionTransitions}, their reset when the pinned view is released, and
+ * touches on a transformed pinned view.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinnedSectionTransitionEffectsTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SECTION_SIZE = 20;
+
+    private static final int VIEW_WIDTH = 200;
+    private static final int VIEW_HEIGHT = 100;
+    private static final float DELTA = 0.001f;
+
+    private View mView;
+    private PinnedSectionTestList mList;
+
+    @Before
+    public void setUp() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mView = new View(InstrumentationRegistry.getTargetContext());
+                mView.layout(0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+            }
+        });
+    }
+
+    @Test
+    public void crossfade_fadesWithPushOff() throws Exception {
+        SectionTransition transition = new PinnedSectionTransitions.Crossfade();
+        transition.onSectionTransition(mView, 10, VIEW_HEIGHT, true, false);
+        assertEquals(1f, mView.getAlpha(), DELTA);
+        transition.onSectionTransition(mView, -25, VIEW_HEIGHT, true, false);
+        assertEquals(0.75f, mView.getAlpha(), DELTA);
+        transition.onSectionTransition(mView, -VIEW_HEIGHT, VIEW_HEIGHT, true, false);
+        assertEquals(0f, mView.getAlpha(), DELTA);
+        assertFalse(transition.isClippedByNextSection());
+
+        transition.onSectionTransitionEnd(mView);
+        assertReset(mView);
+    }
+
+    @Test
+    public void scale_shrinksTowardsPinnedEdge() throws Exception {
+        SectionTransition transition = new PinnedSectionTransitions.Scale();
+        transition.onSectionTransition(mView, -25, VIEW_HEIGHT, true, false);
+        assertEquals(0.75f, mView.getScaleX(), DELTA);
+        assertEquals(0.75f, mView.getScaleY(), DELTA);
+        assertEquals(VIEW_WIDTH / 2f, mView.getPivotX(), DELTA);
+        assertEquals(0f, mView.getPivotY(), DELTA);
+
+        transition.onSectionTransition(mView, -50, VIEW_HEIGHT, true, true);
+        assertEquals(0.5f, mView.getScaleY(), DELTA);
+        assertEquals(VIEW_HEIGHT, mView.getPivotY(), DELTA);
+
+        transition.onSectionTransition(mView, -50, VIEW_WIDTH, false, false);
+        assertEquals(0.75f, mView.getScaleX(), DELTA);
+        assertEquals(0f, mView.getPivotX(), DELTA);
+        assertEquals(VIEW_HEIGHT / 2f, mView.getPivotY(), DELTA);
+        assertFalse(transition.isClippedByNextSection());
+
+        transition.onSectionTransitionEnd(mView);
+        assertReset(mView);
+    }
+
+    @Test
+    public void parallax_movesSlowerThanPush() throws Exception {
+        SectionTransition transition = new PinnedSectionTransitions.Parallax();
+        transition.onSectionTransition(mView, 10, VIEW_HEIGHT, true, false);
+        assertEquals(0f, mView.getTranslationY(), DELTA);
+        transition.onSectionTransition(mView, -40, VIEW_HEIGHT, true, false);
+        assertEquals(-20f, mView.getTranslationY(), DELTA);
+        transition.onSectionTransition(mView, -150, VIEW_HEIGHT, true, false);
+        assertEquals(-50f, mView.getTranslationY(), DELTA);
+        transition.onSectionTransition(mView, -40, VIEW_HEIGHT, true, true);
+        assertEquals(20f, mView.getTranslationY(), DELTA);
+        assertEquals(0f, mView.getTranslationX(), DELTA);
+
+        transition = new PinnedSectionTransitions.Parallax(0.25f);
+        transition.onSectionTransition(mView, -40, VIEW_WIDTH, false, false);
+        assertEquals(-10f, mView.getTranslationX(), DELTA);
+        assertTrue(transition.isClippedByNextSection());
+
+        transition.onSectionTransitionEnd(mView);
+        assertReset(mView);
+    }
+
+    @Test
+    public void releasedPinnedView_isReset() throws Exception {
+        final RecordingTransition transition = new RecordingTransition(new PinnedSectionTransitions.Crossfade());
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                createList(transition);
+                int height = mList.recyclerView.getChildAt(1).getHeight();
+                // the next section pushes half of the pinned one off
+                mList.scrollBy((SECTION_SIZE - 1) * height + height / 2 - PinnedSectionTestList.SCROLL);
+                assertEquals(0, mList.decoration.getPinnedSectionPosition());
+                assertEquals(0.5f, transition.views.get(0).getAlpha(), 0.05f);
+
+                // the next section is pinned, the first pinned view goes back to the pool
+                mList.scrollBy(height);
+                assertEquals(SECTION_SIZE, mList.decoration.getPinnedSectionPosition());
+            }
+        });
+        assertTrue(transition.ends > 0);
+        assertReset(transition.views.get(0));
+    }
+
+    @Test
+    public void removedTransition_resetsPinnedView() throws Exception {
+        final RecordingTransition transition = new RecordingTransition(new PinnedSectionTransitions.Scale());
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                createList(transition);
+                int height = mList.recyclerView.getChildAt(1).getHeight();
+                mList.scrollBy((SECTION_SIZE - 1) * height + height / 2 - PinnedSectionTestList.SCROLL);
+                assertEquals(0.5f, transition.views.get(0).getScaleY(), 0.05f);
+                mList.decoration.setSectionTransition(null);
+            }
+        });
+        assertEquals(1, transition.ends);
+        assertReset(transition.views.get(0));
+    }
+
+    @Test
+    public void translatedPinnedView_isTouchedAtItsTransformedBounds() throws Exception {
+        final RecordingTransition transition = new RecordingTransition(new SectionTransition() {
+            @Override
+            public void onSectionTransition(View pinnedView, int distance, int size, boolean vertical, boolean reverse) {
+                pinnedView.setTranslationY(pinnedView.getHeight());
+            }
+
+            @Override
+            public void onSectionTransitionEnd(View pinnedView) {
+                PinnedSectionTransitions.reset(pinnedView);
+            }
+
+            @Override
+            public boolean isClippedByNextSection() {
+                return false;
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                createList(transition);
+                View view = transition.views.get(0);
+                float x = view.getWidth() / 2f;
+                assertFalse(mList.intercept(x, view.getHeight() / 2f));
+                assertTrue(mList.intercept(x, view.getHeight() * 1.5f));
+            }
+        });
+    }
+
+    @Test
+    public void fadedOutPinnedView_isNotTouched() throws Exception {
+        final RecordingTransition transition = new RecordingTransition(new SectionTransition() {
+            @Override
+            public void onSectionTransition(View pinnedView, int distance, int size, boolean vertical, boolean reverse) {
+                pinnedView.setAlpha(0);
+            }
+
+            @Override
+            public void onSectionTransitionEnd(View pinnedView) {
+                PinnedSectionTransitions.reset(pinnedView);
+            }
+
+            @Override
+            public boolean isClippedByNextSection() {
+                return false;
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                createList(transition);
+                View view = transition.views.get(0);
+                assertFalse(mList.intercept(view.getWidth() / 2f, view.getHeight() / 2f));
+            }
+        });
+    }
+
+    /**
+     * Lays out a list with the first section pinned, on the main thread
+     */
+    private void createList(SectionTransition transition) {
+        mList = new PinnedSectionTestList(new SyntheticSectionAdapter(ITEM_COUNT, SECTION_SIZE));
+        mList.decoration.setSectionTransition(transition);
+        mList.pinFirstSection();
+        assertEquals(0, mList.decoration.getPinnedSectionPosition());
+        assertFalse(transition.views.isEmpty());
+    }
+
+    private static void assertReset(View view) {
+        assertEquals(view.getWidth() / 2f, view.getPivotX(), DELTA);
+        assertEquals(view.getHeight() / 2f, view.getPivotY(), DELTA);
+        assertEquals(1f, view.getAlpha(), DELTA);
+        assertEquals(1f, view.getScaleX(), DELTA);
+        assertEquals(1f, view.getScaleY(), DELTA);
+        assertEquals(0f, view.getTranslationX(), DELTA);
+        assertEquals(0f, view.getTranslationY(), DELTA);
+    }
+
+    /**
+     * Records the views a transition was applied to and how often it was ended
+     */
+    private static class RecordingTransition implements SectionTransition {
+        final List<View> views = new ArrayList<>();
+        int ends;
+
+        private final SectionTransition mTransition;
+
+        RecordingTransition(SectionTransition transition) {
+            mTransition = transition;
+        }
+
+        @Override
+        public void onSectionTransition(View pinnedView, int distance, int size, boolean vertical, boolean reverse) {
+            if (!views.contains(pinnedView)) views.add(pinnedView);
+            mTransition.onSectionTransition(pinnedView, distance, size, vertical, reverse);
+        }
+
+        @Override
+        public void onSectionTransitionEnd(View pinnedView) {
+            ends++;
+            mTransition.onSectionTransitionEnd(pinnedView);
+        }
+
+        @Override
+        public boolean isClippedByNextSection() {
+            return mTransition.isClippedByNextSection();
+        }
+    }
+}
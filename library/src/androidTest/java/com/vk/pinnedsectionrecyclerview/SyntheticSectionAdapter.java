@@ -0,0 +1,81 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+/**
+ * Adapter with a section every {@code sectionSize} rows, answering every lookup arithmetically.
+ */
+class SyntheticSectionAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
+        implements PinnedSectionRecyclerView.Adapter {
+
+    private final int mItemCount;
+    private int mSectionSize;
+    private final int mRowSize;
+
+    SyntheticSectionAdapter(int itemCount, int sectionSize) {
+        this(itemCount, sectionSize, 0);
+    }
+
+    /**
+     * @param rowSize size of every row along the scroll axis, 0 to wrap the text
+     */
+    SyntheticSectionAdapter(int itemCount, int sectionSize, int rowSize) {
+        mItemCount = itemCount;
+        mSectionSize = sectionSize;
+        mRowSize = rowSize;
+    }
+
+    /**
+     * Moves the section boundaries, notify the change afterwards
+     */
+    void setSectionSize(int sectionSize) {
+        mSectionSize = sectionSize;
+    }
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        TextView textView = new TextView(parent.getContext());
+        textView.setPadding(20, 40, 20, 40);
+        if (mRowSize > 0) {
+            boolean vertical = ((RecyclerView) parent).getLayoutManager().canScrollVertically();
+            textView.setLayoutParams(vertical
+                    ? new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, mRowSize)
+                    : new RecyclerView.LayoutParams(mRowSize, ViewGroup.LayoutParams.MATCH_PARENT));
+        }
+        return new RecyclerView.ViewHolder(textView) {
+        };
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        ((TextView) holder.itemView).setText(isPinnedSectionItem(position) ? "Section" : "Item");
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return isPinnedSectionItem(position) ? 1 : 0;
+    }
+
+    @Override
+    public boolean isPinnedSectionItem(int position) {
+        return position % mSectionSize == 0;
+    }
+
+    @Override
+    public int findSectionPosition(int position) {
+        return position - position % mSectionSize;
+    }
+
+    @Override
+    public int findNextSectionPosition(int position) {
+        int next = findSectionPosition(position) + mSectionSize;
+        return next < mItemCount ? next : -1;
+    }
+}
@@ -0,0 +1,61 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * Default {@link PinnedSectionRecyclerView.FirstVisiblePositionStrategy}.<br/>
+ * Uses the {@link LinearLayoutManager} lookups when available (this covers GridLayoutManager),
+ * otherwise scans the attached children, which works for StaggeredGridLayoutManager and custom
+ * layout managers without allocating a per-span array.
+ */
+public class DefaultFirstVisiblePositionStrategy implements PinnedSectionRecyclerView.FirstVisiblePositionStrategy {
+
+    @Override
+    public int findFirstVisiblePosition(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager)
+            return ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+        return findFirstChildPosition(recyclerView, layoutManager, false);
+    }
+
+    @Override
+    public int findFirstCompletelyVisiblePosition(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager)
+            return ((LinearLayoutManager) layoutManager).findFirstCompletelyVisibleItemPosition();
+        return findFirstChildPosition(recyclerView, layoutManager, true);
+    }
+
+    /**
+     * 遍历子view找出最小的可见adapter位置
+     *
+     * @param completely only accept children fully inside the padded area
+     * @return smallest visible adapter position, {@link RecyclerView#NO_POSITION} if there is none
+     */
+    private static int findFirstChildPosition(RecyclerView recyclerView, RecyclerView.LayoutManager layoutManager,
+                                              boolean completely) {
+        if (layoutManager == null) return RecyclerView.NO_POSITION;
+
+        boolean vertical = !layoutManager.canScrollHorizontally();
+        int start = vertical ? recyclerView.getPaddingTop() : recyclerView.getPaddingLeft();
+        int end = vertical ? recyclerView.getHeight() - recyclerView.getPaddingBottom()
+                : recyclerView.getWidth() - recyclerView.getPaddingRight();
+        int first = RecyclerView.NO_POSITION;
+        int childCount = layoutManager.getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View child = layoutManager.getChildAt(i);
+            int top = vertical ? layoutManager.getDecoratedTop(child) : layoutManager.getDecoratedLeft(child);
+            int bottom = vertical ? layoutManager.getDecoratedBottom(child) : layoutManager.getDecoratedRight(child);
+            boolean visible = completely ? top >= start && bottom <= end : bottom > start && top < end;
+            if (!visible) continue;
+
+            int position = recyclerView.getChildAdapterPosition(child);
+            if (position != RecyclerView.NO_POSITION && (first == RecyclerView.NO_POSITION || position < first)) {
+                first = position;
+            }
+        }
+        return first;
+    }
+}
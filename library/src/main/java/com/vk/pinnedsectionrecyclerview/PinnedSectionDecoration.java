@@ -0,0 +1,2346 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.PointF;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.LinearSmoothScroller;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.GestureDetector;
+import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityEvent;
+
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.Adapter;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.FirstVisiblePositionStrategy;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.LabelSectionAdapter;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.MultiLevelAdapter;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.OnPinnedSectionTouchListener;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.OverlayTouchArea;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.PagedSectionAdapter;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.PositionMapping;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.SectionContentAdapter;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.SectionStateAdapter;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.SectionTransition;
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.SizeStableAdapter;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+import static android.support.v7.widget.RecyclerView.NO_ID;
+import static android.support.v7.widget.RecyclerView.NO_POSITION;
+
+/**
+ * 悬挂section的引擎，以ItemDecoration和OnItemTouchListener的形式添加到任意RecyclerView<br/>
+ * Attach with {@link #attachToRecyclerView(RecyclerView)}. The pinned views are drawn in
+ * {@link #onDrawOver(Canvas, RecyclerView, RecyclerView.State)} and touches on them are taken before the children,
+ * so the list does not have to be a {@link PinnedSectionRecyclerView}, which is a thin wrapper around this class.
+ * The adapter must implement {@link PinnedSectionRecyclerView.Adapter}.
+ */
+public class PinnedSectionDecoration extends RecyclerView.ItemDecoration implements RecyclerView.OnItemTouchListener {
+    private static final String TAG = PinnedSectionRecyclerView.TAG;
+    private static final boolean DEBUG = PinnedSectionRecyclerView.DEBUG;
+
+    /**
+     * Smooth scrolls farther than this many screens of children jump close to the target first.
+     */
+    private static final int SMOOTH_SCROLL_JUMP_SCREENS = 2;
+
+    /**
+     * A pinned view faded below this alpha by a {@link SectionTransition} no longer takes touches
+     */
+    private static final float MIN_TOUCH_ALPHA = 0.01f;
+
+    private RecyclerView mRecyclerView;
+
+    /**
+     * List's adapter, followed when it is replaced.
+     */
+    private RecyclerView.Adapter mAdapter;
+
+    /**
+     * Adapter implementing {@link Adapter} that the data observer is registered on, mAdapter unless it is wrapped.
+     * The pinned sections keep positions of this adapter.
+     */
+    private RecyclerView.Adapter mSectionAdapter;
+
+    /**
+     * Maps positions between the list's adapter and the section adapter it wraps, can be null.
+     */
+    private PositionMapping mPositionMapping;
+
+    /**
+     * shadow instance with a pinned view, can be null.
+     */
+    PinnedSection mPinnedSection;
+
+    /**
+     * Shadow for being recycled, can be null.
+     */
+    PinnedSection mRecycleSection;
+
+    /**
+     * Stacked sections of levels 1 and deeper, for {@link MultiLevelAdapter}. An entry without holder is not pinned.
+     */
+    PinnedSection[] mNestedSections = new PinnedSection[0];
+
+    /**
+     * Detached holders of previously pinned sections, reused instead of inflating a new one.
+     */
+    final PinnedViewHolderPool mPinnedViewHolderPool = new PinnedViewHolderPool();
+
+    /**
+     * Last measure specs and size of the pinned view, per view type.
+     */
+    private final SparseArray<PinnedMeasure> mPinnedMeasureCache = new SparseArray<>();
+
+    /**
+     * Reused payload list for partial rebinds of the pinned view.
+     */
+    private final ArrayList<Object> mPayloads = new ArrayList<>(1);
+
+    // fields used for drawing shadow under a pinned section
+    private PinnedSectionShadow mShadow;
+    private int mSectionsDistance;
+    private int mShadowHeight;
+    private int mShadowColor = PinnedSectionShadow.DEFAULT_COLOR;
+    private int mShadowSize;
+
+    // text style of pinned labels, see LabelSectionAdapter
+    private final PinnedSectionLabelView.Style mLabelStyle = new PinnedSectionLabelView.Style();
+
+    /**
+     * Pinned view translation along the scroll axis, towards the pinned edge.
+     * We use it to stick pinned view to the next section.
+     */
+    int mTranslate;
+
+    // scroll axis and pinned edge, read from the layout manager
+    private boolean mPinnedVertical = true;
+    private boolean mPinnedReverse;
+
+    /**
+     * Finds the first (completely) visible adapter position for the current layout manager.
+     */
+    private FirstVisiblePositionStrategy mFirstVisiblePositionStrategy = new DefaultFirstVisiblePositionStrategy();
+
+    /**
+     * Effect replacing the hard push of the top level pinned view, null for the push
+     */
+    private SectionTransition mSectionTransition;
+
+    /**
+     * Receives pinned section events, can be null.
+     */
+    private PinnedSectionMetrics mMetrics;
+
+    // next section predicted from the scroll direction, bound and measured while the main thread is idle
+    private boolean mPinnedSectionPrefetchEnabled = true;
+    private boolean mPrefetchScheduled;
+    private int mScrollDirection;
+    private int mPrefetchAnchorPosition = NO_POSITION;
+    private int mPrefetchAnchorDirection;
+    private int mPrefetchPosition = NO_POSITION;
+    private RecyclerView.ViewHolder mPrefetchedHolder;
+
+    /**
+     * Draw the list's own section child while it is attached, instead of binding a detached holder.
+     */
+    private boolean mPinnedSectionAttachedViewEnabled;
+
+    // data changed under the pinned sections: look them up again after the next layout
+    private boolean mSectionCheckScheduled;
+
+    // scroll targets waiting for a layout pass
+    private int mPendingScrollPosition = NO_POSITION;
+    private int mPendingSmoothScrollPosition = NO_POSITION;
+
+    // pinned section restored from the saved state, rebuilt in the first layout pass
+    private int mRestoredPinnedPosition = NO_POSITION;
+    private long mRestoredPinnedId = NO_ID;
+
+    /**
+     * Adapter the pinned holder cache and the measure cache belong to, kept while the adapter is only unset.
+     * Weak, so that unsetting the adapter still lets it be collected.
+     */
+    private WeakReference<RecyclerView.Adapter> mPinnedCacheAdapter;
+
+    // positions found by the last scroll check
+    private int mFirstVisiblePosition = NO_POSITION;
+    private int mFirstCompletelyVisiblePosition = NO_POSITION;
+    private int mNextSectionPosition = NO_POSITION;
+
+    // views at those positions, used to skip the lookups while no child boundary is crossed
+    private View mFirstVisibleView;
+    private View mFirstCompletelyVisibleView;
+
+    // fields used for handling touch events
+    // touch point mapped into the untransformed pinned view
+    private final float[] mTouchPoint = new float[2];
+    private final Matrix mTouchMatrix = new Matrix();
+    private View mTouchTarget;
+    private PinnedSection mTouchSection;
+    private View mTouchChild;
+
+    //用于检测touch事件落点在pinnedview的手势情况
+    private GestureDetector mGestureDetector;
+
+    private OnPinnedSectionTouchListener mOnPinnedSectionTouchListener;
+
+    /**
+     * Area drawn over the pinned views, e.g. an index bar, gets touches on it first. Can be null.
+     */
+    private OverlayTouchArea mOverlayTouchArea;
+
+    public PinnedSectionDecoration(Context context) {
+        DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
+        mShadowSize = (int) (PinnedSectionShadow.DEFAULT_HEIGHT_DP * displayMetrics.density);
+        mLabelStyle.textPaint.setTextSize(PinnedSectionLabelView.DEFAULT_TEXT_SIZE_SP * displayMetrics.scaledDensity);
+        mLabelStyle.textPaint.setColor(Color.BLACK);
+        mLabelStyle.padding = (int) (PinnedSectionLabelView.DEFAULT_PADDING_DP * displayMetrics.density);
+        initShadow(true);
+        mGestureDetector = new GestureDetector(context.getApplicationContext(), new GestureDetector.OnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public void onShowPress(MotionEvent e) {
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                if (mTouchSection == null || mTouchSection.holder == null || mTouchSection.pending)
+                    return true;
+                if (mTouchChild != null) {
+                    mTouchChild.performClick();
+                    return true;
+                }
+                mRecyclerView.playSoundEffect(SoundEffectConstants.CLICK);
+                mTouchSection.holder.itemView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_CLICKED);
+                if (mOnPinnedSectionTouchListener != null)
+                    mOnPinnedSectionTouchListener.onClick(mTouchSection.holder.itemView,
+                            toListPosition(mTouchSection.position));
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                // the list drags itself, see onInterceptTouchEvent
+                return false;
+            }
+
+            @Override
+            public void onLongPress(MotionEvent e) {
+                if (mTouchSection == null || mTouchSection.holder == null || mTouchSection.pending)
+                    return;
+                if (mTouchChild != null) {
+                    if (mTouchChild.isLongClickable()) mTouchChild.performLongClick();
+                    return;
+                }
+                mTouchSection.holder.itemView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_LONG_CLICKED);
+                mRecyclerView.performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+                if (mOnPinnedSectionTouchListener != null)
+                    mOnPinnedSectionTouchListener.onLongClick(mTouchSection.holder.itemView,
+                            toListPosition(mTouchSection.position));
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 绑定到列表，传null解除绑定
+     *
+     * @param recyclerView list to pin the sections of, null to remove them from the current one
+     */
+    public void attachToRecyclerView(@Nullable RecyclerView recyclerView) {
+        if (mRecyclerView == recyclerView) return;
+        if (mRecyclerView != null) {
+            mRecyclerView.removeItemDecoration(this);
+            mRecyclerView.removeOnItemTouchListener(this);
+            mRecyclerView.removeOnScrollListener(mOnScrollListener);
+            mRecyclerView.removeOnChildAttachStateChangeListener(mChildAttachStateListener);
+            mRecyclerView.removeOnLayoutChangeListener(mLayoutChangeListener);
+            mRecyclerView.removeOnAttachStateChangeListener(mAttachStateListener);
+            mRecyclerView.removeCallbacks(mPendingScroll);
+            mRecyclerView.removeCallbacks(mPendingSmoothScroll);
+            mRecyclerView.removeCallbacks(mSectionCheck);
+            mSectionCheckScheduled = false;
+            cancelPinnedSectionPrefetch();
+            clearTouchTarget();
+            observeAdapter(null);
+            clearPinnedCaches();
+            mRecyclerView.invalidate();
+        }
+        mRecyclerView = recyclerView;
+        if (recyclerView != null) {
+            recyclerView.addItemDecoration(this);
+            recyclerView.addOnItemTouchListener(this);
+            recyclerView.addOnScrollListener(mOnScrollListener);
+            recyclerView.addOnChildAttachStateChangeListener(mChildAttachStateListener);
+            recyclerView.addOnLayoutChangeListener(mLayoutChangeListener);
+            recyclerView.addOnAttachStateChangeListener(mAttachStateListener);
+            observeAdapter(recyclerView.getAdapter());
+        }
+    }
+
+    /**
+     * 跟随列表的adapter，更换adapter时移除悬挂视图
+     */
+    void syncAdapter() {
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        if (adapter != mAdapter) observeAdapter(adapter);
+    }
+
+    private void observeAdapter(@Nullable RecyclerView.Adapter adapter) {
+        RecyclerView.Adapter sectionAdapter = adapter;
+        if (adapter != null && mPositionMapping != null)
+            sectionAdapter = mPositionMapping.getSectionAdapter(adapter);
+        if (sectionAdapter != null && !(sectionAdapter instanceof Adapter))
+            throw new IllegalArgumentException("Does your adapter implement PinnedSectRecyclerView.Adapter?");
+        // data changes are observed in the section adapter's own positions, whatever the wrapper adds around it
+        if (mSectionAdapter != null) mSectionAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
+        if (sectionAdapter != null) sectionAdapter.registerAdapterDataObserver(mAdapterDataObserver);
+
+        // destroy pinned shadow, if new adapter is not same as old one
+        if (mAdapter != adapter || mSectionAdapter != sectionAdapter) {
+            removePinnedSection();
+            dropPrefetchedSection();
+        }
+        mAdapter = adapter;
+        mSectionAdapter = sectionAdapter;
+        // keep the cached holders while the same list only unsets the adapter and sets it again, or is detached
+        // and attached again with it, e.g. in a ViewPager. A fragment whose view is rebuilt gets a new list and
+        // decoration, nothing is kept there.
+        if (adapter != null && (mPinnedCacheAdapter == null || adapter != mPinnedCacheAdapter.get())) {
+            clearPinnedCaches();
+            mPinnedCacheAdapter = new WeakReference<>(adapter);
+        }
+    }
+
+    private void clearPinnedCaches() {
+        mPinnedViewHolderPool.clear();
+        mPinnedMeasureCache.clear();
+        mPinnedCacheAdapter = null;
+    }
+
+    private void invalidate() {
+        if (mRecyclerView != null) mRecyclerView.invalidate();
+    }
+
+    /**
+     * 设置包装adapter（下拉刷新头、加载更多等）与内层section adapter之间的位置转换<br/>
+     * Positions reported by this class, such as {@link #getPinnedSectionPosition()} and the touch listener's,
+     * are positions of the list's adapter; the section adapter's interfaces get its own positions.
+     * While rows added by the wrapper, like a refresh header, are at the top of the list nothing is pinned.
+     *
+     * @param mapping mapping for the list's adapter, null if the list's adapter implements {@link Adapter} itself
+     */
+    public void setPositionMapping(@Nullable PositionMapping mapping) {
+        if (mPositionMapping == mapping) return;
+        mPositionMapping = mapping;
+        if (mRecyclerView != null) {
+            // observe the section adapter of the new mapping
+            RecyclerView.Adapter adapter = mAdapter;
+            observeAdapter(null);
+            observeAdapter(adapter);
+            mRecyclerView.requestLayout();
+        }
+    }
+
+    @Nullable
+    public PositionMapping getPositionMapping() {
+        return mPositionMapping;
+    }
+
+    /**
+     * @return adapter answering the section lookups, null while the list has no adapter
+     */
+    @Nullable
+    RecyclerView.Adapter getSectionAdapter() {
+        return mSectionAdapter;
+    }
+
+    /**
+     * @param position position in the list's adapter
+     * @return position in the section adapter, {@link RecyclerView#NO_POSITION} for a row added by a wrapper
+     */
+    int toSectionPosition(int position) {
+        if (mPositionMapping == null || position < 0) return position;
+        return mPositionMapping.toSectionPosition(position);
+    }
+
+    /**
+     * @param sectionPosition position in the section adapter, negative values are returned as they are
+     * @return position in the list's adapter
+     */
+    int toListPosition(int sectionPosition) {
+        if (mPositionMapping == null || sectionPosition < 0) return sectionPosition;
+        return mPositionMapping.toListPosition(sectionPosition);
+    }
+
+    //-- public API methods
+
+    public void setShadowVisible(boolean visible) {
+        initShadow(visible);
+        if (mPinnedSection != null) {
+            invalidate();
+        }
+    }
+
+    /**
+     * 设置每种viewType缓存的悬挂ViewHolder数量
+     *
+     * @param size max holders kept per view type, 0 disables the cache
+     */
+    public void setPinnedSectionCacheSize(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("cache size must be >= 0, was " + size);
+        mPinnedViewHolderPool.setMaxPerType(size);
+    }
+
+    /**
+     * @return how many pinned sections were bound on a cached holder
+     */
+    public int getPinnedSectionCacheHits() {
+        return mPinnedViewHolderPool.mHitCount;
+    }
+
+    /**
+     * @return how many pinned sections needed a new holder from the adapter
+     */
+    public int getPinnedSectionCacheMisses() {
+        return mPinnedViewHolderPool.mMissCount;
+    }
+
+    /**
+     * @return adapter position of the pinned section, {@link RecyclerView#NO_POSITION} when nothing or a placeholder
+     * is pinned
+     */
+    public int getPinnedSectionPosition() {
+        return mPinnedSection != null && !mPinnedSection.pending ? toListPosition(mPinnedSection.position) : NO_POSITION;
+    }
+
+    /**
+     * 滚动到第sectionIndex个section，section本身显示在悬挂的边上
+     *
+     * @param sectionIndex index of the section, counting every pinned section item from the start of the list
+     * @param smooth       true to animate; long distances jump close to the target first
+     * @throws IllegalStateException if the decoration is not attached to a list
+     */
+    public void scrollToSection(int sectionIndex, boolean smooth) {
+        checkAttached();
+        int position = findSectionPositionByIndex(sectionIndex);
+        if (position == NO_POSITION)
+            throw new IndexOutOfBoundsException("no section " + sectionIndex);
+        position = toListPosition(position);
+        if (smooth)
+            smoothScrollToPositionBelowHeader(position);
+        else
+            scrollToPositionBelowHeader(position);
+    }
+
+    /**
+     * 滚动到position，使其紧贴在悬挂视图之下而不被遮挡
+     *
+     * @param position adapter position to show right below the pinned sections
+     * @throws IllegalStateException if the decoration is not attached to a list
+     */
+    public void scrollToPositionBelowHeader(int position) {
+        checkAttached();
+        if (mRecyclerView.getWidth() == 0) {
+            // the pinned views cannot be measured yet: go there now, correct the offset after the first layout
+            mPendingScrollPosition = position;
+            jumpToPosition(position, 0);
+            return;
+        }
+        jumpToPosition(position, getPinnedStackSize(position));
+    }
+
+    /**
+     * 平滑滚动到position，使其紧贴在悬挂视图之下。距离较远时先跳到目标附近，只播放最后一段动画
+     *
+     * @param position adapter position to show right below the pinned sections
+     * @throws IllegalStateException if the decoration is not attached to a list
+     */
+    public void smoothScrollToPositionBelowHeader(int position) {
+        checkAttached();
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (layoutManager == null || mRecyclerView.getWidth() == 0) {
+            scrollToPositionBelowHeader(position);
+            return;
+        }
+        mRecyclerView.stopScroll();
+        int first = mFirstVisiblePositionStrategy.findFirstVisiblePosition(mRecyclerView);
+        int window = Math.max(mRecyclerView.getChildCount(), 1) * SMOOTH_SCROLL_JUMP_SCREENS;
+        mPendingSmoothScrollPosition = position;
+        if (first != NO_POSITION && Math.abs(position - first) > window) {
+            jumpToPosition(position > first ? position - window : position + window, 0);
+            mRecyclerView.post(mPendingSmoothScroll);
+        } else {
+            mPendingSmoothScroll.run();
+        }
+    }
+
+    private void checkAttached() {
+        if (mRecyclerView == null)
+            throw new IllegalStateException("PinnedSectionDecoration is not attached, call attachToRecyclerView first");
+    }
+
+    private final Runnable mPendingSmoothScroll = new Runnable() {
+        @Override
+        public void run() {
+            int position = mPendingSmoothScrollPosition;
+            mPendingSmoothScrollPosition = NO_POSITION;
+            RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+            if (position == NO_POSITION || layoutManager == null || mRecyclerView.getAdapter() == null
+                    || position >= mRecyclerView.getAdapter().getItemCount())
+                return;
+            PinnedSectionSmoothScroller scroller = new PinnedSectionSmoothScroller(mRecyclerView.getContext(),
+                    getPinnedStackSize(position), mPinnedReverse);
+            scroller.setTargetPosition(position);
+            layoutManager.startSmoothScroll(scroller);
+        }
+    };
+
+    private final Runnable mPendingScroll = new Runnable() {
+        @Override
+        public void run() {
+            int position = mPendingScrollPosition;
+            mPendingScrollPosition = NO_POSITION;
+            if (position != NO_POSITION && mRecyclerView.getWidth() > 0 && mRecyclerView.getAdapter() != null
+                    && position < mRecyclerView.getAdapter().getItemCount())
+                scrollToPositionBelowHeader(position);
+        }
+    };
+
+    private final View.OnLayoutChangeListener mLayoutChangeListener = new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (right - left != oldRight - oldLeft || bottom - top != oldBottom - oldTop) {
+                mPinnedMeasureCache.clear();
+                dropPrefetchedSection();
+            }
+            syncAdapter();
+            if (mRestoredPinnedPosition != NO_POSITION)
+                restorePinnedSection();
+            if (mPendingScrollPosition != NO_POSITION)
+                mRecyclerView.post(mPendingScroll);
+            if (mSectionCheckScheduled)
+                runSectionCheck();
+        }
+    };
+
+    /**
+     * Fallback of the layout listener: an update of a fixed size list is laid out without calling
+     * {@link View#layout}, so no layout change is delivered for it.
+     */
+    private final Runnable mSectionCheck = new Runnable() {
+        @Override
+        public void run() {
+            if (!mSectionCheckScheduled || mRecyclerView == null) return;
+            // the layout listener runs the check once the requested layout is done
+            if (mRecyclerView.isLayoutRequested()) return;
+            if (mRecyclerView.hasPendingAdapterUpdates()) {
+                ViewCompat.postOnAnimation(mRecyclerView, this);
+                return;
+            }
+            runSectionCheck();
+        }
+    };
+
+    private final View.OnAttachStateChangeListener mAttachStateListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            cancelPinnedSectionPrefetch();
+            // nothing to come back to: the holders would only keep the old adapter's views alive
+            if (mAdapter == null) clearPinnedCaches();
+        }
+    };
+
+    void onSaveInstanceState(PinnedSectionRecyclerView.PinnedSectionSavedState state) {
+        if (mPinnedSection != null && !mPinnedSection.pending) {
+            state.pinnedPosition = mPinnedSection.position;
+            state.pinnedId = mPinnedSection.id;
+        } else if (mPinnedSection == null) {
+            state.pinnedPosition = mRestoredPinnedPosition;
+            state.pinnedId = mRestoredPinnedId;
+        }
+        state.shadowVisible = mShadow != null;
+    }
+
+    void onRestoreInstanceState(PinnedSectionRecyclerView.PinnedSectionSavedState state) {
+        setShadowVisible(state.shadowVisible);
+        mRestoredPinnedPosition = state.pinnedPosition;
+        mRestoredPinnedId = state.pinnedId;
+    }
+
+    /**
+     * 恢复状态后的第一次布局中重建悬挂视图，而不是等到第一次滚动
+     */
+    private void restorePinnedSection() {
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        // wait for the data if the adapter is not set or still empty
+        if (adapter == null || adapter.getItemCount() == 0 || mRecyclerView.getLayoutManager() == null) return;
+        int position = mRestoredPinnedPosition;
+        long id = mRestoredPinnedId;
+        mRestoredPinnedPosition = NO_POSITION;
+        mRestoredPinnedId = NO_ID;
+
+        updatePinnedOrientation();
+        if (mPinnedSection == null && position < adapter.getItemCount()
+                && ((Adapter) adapter).isPinnedSectionItem(position)
+                && (!adapter.hasStableIds() || adapter.getItemId(position) == id)) {
+            // the section pinned before, built on the restored layout; the check below only moves it
+            createPinnedSection(position);
+        }
+        checkOnScrolled();
+    }
+
+    /**
+     * @return section adapter position of the section, {@link RecyclerView#NO_POSITION} if there are not that many
+     */
+    private int findSectionPositionByIndex(int sectionIndex) {
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        if (sectionIndex < 0 || adapter == null) return NO_POSITION;
+        if (adapter instanceof SectionIndexAdapter) {
+            SectionIndex index = ((SectionIndexAdapter) adapter).getSectionIndex();
+            return sectionIndex < index.size() ? index.getSectionPosition(sectionIndex) : NO_POSITION;
+        }
+        // no index: walk the sections
+        Adapter sectionAdapter = (Adapter) adapter;
+        int position = adapter.getItemCount() > 0 && sectionAdapter.isPinnedSectionItem(0)
+                ? 0 : sectionAdapter.findNextSectionPosition(0);
+        for (int i = 0; i < sectionIndex && position >= 0; i++) {
+            position = sectionAdapter.findNextSectionPosition(position);
+        }
+        return position >= 0 ? position : NO_POSITION;
+    }
+
+    /**
+     * 计算position滚动到悬挂的边时，压在它上面的各级悬挂视图的总尺寸
+     *
+     * @param position list adapter position
+     * @return size along the scroll axis of the pinned sections that would cover position
+     */
+    private int getPinnedStackSize(int position) {
+        Adapter adapter = (Adapter) mSectionAdapter;
+        position = toSectionPosition(position);
+        if (adapter == null || position < 0) return 0;
+        int section = adapter.findSectionPosition(position);
+        if (section < 0 || section == position) return 0;
+        int size = getSectionSize(section, true);
+        if (adapter instanceof MultiLevelAdapter) {
+            MultiLevelAdapter multiLevelAdapter = (MultiLevelAdapter) adapter;
+            int parent = section;
+            for (int level = 1; level < multiLevelAdapter.getSectionLevelCount(); level++) {
+                int nested = multiLevelAdapter.findSectionPosition(position, level);
+                if (nested < parent || nested == position) break;
+                size += getSectionSize(nested, false);
+                parent = nested;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 读取section悬挂时的尺寸，尚未悬挂时先准备好它的悬挂ViewHolder
+     *
+     * @param keep true to keep the measured holder to be pinned next, false to return it to the cache
+     */
+    private int getSectionSize(int position, boolean keep) {
+        RecyclerView.ViewHolder holder = null;
+        if (mPinnedSection != null && !mPinnedSection.pending && mPinnedSection.position == position) {
+            holder = mPinnedSection.holder;
+        } else {
+            for (PinnedSection section : mNestedSections) {
+                if (section.holder != null && section.position == position) holder = section.holder;
+            }
+        }
+        if (holder == null) {
+            holder = obtainPinnedHolder(position, null);
+            int size = mPinnedVertical ? holder.itemView.getHeight() : holder.itemView.getWidth();
+            if (keep) {
+                dropPrefetchedSection();
+                mPrefetchedHolder = holder;
+                mPrefetchPosition = position;
+            } else {
+                mPinnedViewHolderPool.put(holder);
+            }
+            return size;
+        }
+        return mPinnedVertical ? holder.itemView.getHeight() : holder.itemView.getWidth();
+    }
+
+    /**
+     * 直接跳转到position并置于悬挂的边，悬挂视图在跳转后的布局中更新一次
+     *
+     * @param position adapter position to show at the pinned edge
+     * @param offset   distance of position from the pinned edge
+     */
+    void jumpToPosition(int position, int offset) {
+        mRecyclerView.stopScroll();
+        clearVisibleViews();
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager)
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(position, offset);
+        else if (layoutManager instanceof StaggeredGridLayoutManager)
+            ((StaggeredGridLayoutManager) layoutManager).scrollToPositionWithOffset(position, offset);
+        else if (layoutManager != null)
+            layoutManager.scrollToPosition(position);
+    }
+
+    boolean isPinnedVertical() {
+        return mPinnedVertical;
+    }
+
+    boolean isPinnedReverse() {
+        return mPinnedReverse;
+    }
+
+    /**
+     * 设置查找第一个可见位置的策略，用于自定义LayoutManager
+     *
+     * @param strategy strategy, null restores {@link DefaultFirstVisiblePositionStrategy}
+     */
+    public void setFirstVisiblePositionStrategy(@Nullable FirstVisiblePositionStrategy strategy) {
+        mFirstVisiblePositionStrategy = strategy != null ? strategy : new DefaultFirstVisiblePositionStrategy();
+    }
+
+    /**
+     * 设置悬挂视图切换效果，代替被下一个section直接推出<br/>
+     * The effect is driven by the same push-off distance and only sets properties of the detached top level
+     * pinned view, it never rebinds or lays it out. The view is still redrawn every frame, through an offscreen
+     * layer while its alpha is below 1. Touches follow its transformed bounds and skip it once faded out.
+     * The list's own attached section view and nested sections keep the push. See {@link PinnedSectionTransitions}
+     * for ready-made effects.
+     *
+     * @param transition effect, null for the push
+     */
+    public void setSectionTransition(@Nullable SectionTransition transition) {
+        if (mSectionTransition == transition) return;
+        if (mSectionTransition != null && mPinnedSection != null && !mPinnedSection.attached)
+            mSectionTransition.onSectionTransitionEnd(mPinnedSection.holder.itemView);
+        mSectionTransition = transition;
+        if (mPinnedSection != null && mRecyclerView != null) {
+            updatePinnedSectionLocation();
+            invalidate();
+        }
+    }
+
+    @Nullable
+    public SectionTransition getSectionTransition() {
+        return mSectionTransition;
+    }
+
+    /**
+     * 设置悬挂视图统计，用于上报创建次数与耗时
+     *
+     * @param metrics metrics receiving pinned section events, null to stop collecting
+     */
+    public void setPinnedSectionMetrics(@Nullable PinnedSectionMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    @Nullable
+    public PinnedSectionMetrics getPinnedSectionMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * 空闲时预先绑定并测量滚动方向上的下一个悬挂视图，越过section边界时直接替换<br/>
+     * Enabled by default. Keeps at most one extra holder bound ahead of the boundary.
+     *
+     * @param enabled true to prepare the next pinned section ahead of time
+     */
+    public void setPinnedSectionPrefetchEnabled(boolean enabled) {
+        if (mPinnedSectionPrefetchEnabled == enabled) return;
+        mPinnedSectionPrefetchEnabled = enabled;
+        if (!enabled) dropPrefetchedSection();
+    }
+
+    public boolean isPinnedSectionPrefetchEnabled() {
+        return mPinnedSectionPrefetchEnabled;
+    }
+
+    /**
+     * 列表中的section视图仍然可见时直接绘制该视图，被回收后才绑定独立的悬挂ViewHolder<br/>
+     * Saves the second bind of a header that is still on screen. The fallback holder is bound when the child
+     * detaches, or copies its state if the adapter implements {@link SectionStateAdapter}.
+     *
+     * @param enabled true to draw the attached section child while it is available
+     */
+    public void setPinnedSectionAttachedViewEnabled(boolean enabled) {
+        if (mPinnedSectionAttachedViewEnabled == enabled) return;
+        mPinnedSectionAttachedViewEnabled = enabled;
+        if (!enabled && mPinnedSection != null) {
+            detachPinnedSectionHolder(mPinnedSection);
+            for (PinnedSection section : mNestedSections) {
+                if (section.holder != null) detachPinnedSectionHolder(section);
+            }
+        }
+    }
+
+    public boolean isPinnedSectionAttachedViewEnabled() {
+        return mPinnedSectionAttachedViewEnabled;
+    }
+
+    //-- pinned section drawing methods
+
+    public void initShadow(boolean visible) {
+        if (visible) {
+            mShadow = PinnedSectionShadow.obtain(mShadowColor, mShadowSize, mPinnedVertical, mPinnedReverse);
+            mShadowHeight = mShadowSize;
+        } else {
+            mShadow = null;
+            mShadowHeight = 0;
+        }
+    }
+
+    /**
+     * @param color shadow color next to the pinned view, fades out to transparent
+     */
+    public void setShadowColor(int color) {
+        mShadowColor = color;
+        if (mShadow != null) setShadowVisible(true);
+    }
+
+    /**
+     * @param height shadow height in pixels
+     */
+    public void setShadowHeight(int height) {
+        mShadowSize = height;
+        if (mShadow != null) setShadowVisible(true);
+    }
+
+    /**
+     * @param size text size of pinned labels in pixels
+     * @see LabelSectionAdapter
+     */
+    public void setLabelTextSize(float size) {
+        mLabelStyle.textPaint.setTextSize(size);
+        onLabelStyleChanged();
+    }
+
+    /**
+     * @param color text color of pinned labels
+     */
+    public void setLabelTextColor(int color) {
+        mLabelStyle.textPaint.setColor(color);
+        onLabelStyleChanged();
+    }
+
+    /**
+     * @param padding padding around the text of pinned labels in pixels
+     */
+    public void setLabelPadding(int padding) {
+        mLabelStyle.padding = padding;
+        onLabelStyleChanged();
+    }
+
+    /**
+     * @param size size of pinned labels along the scroll axis in pixels, e.g. the height of the list's section
+     *             views; 0 to fit the text
+     */
+    public void setLabelSize(int size) {
+        mLabelStyle.size = size;
+        onLabelStyleChanged();
+    }
+
+    /**
+     * 标签样式变化后在原视图上重新绘制
+     */
+    private void onLabelStyleChanged() {
+        mLabelStyle.clear();
+        dropPrefetchedSection();
+        if (mPinnedSection == null) return;
+        if (mPinnedSection.holder instanceof PinnedSectionLabelView.Holder)
+            bindLabelHolder(mPinnedSection.holder, mPinnedSection.position);
+        for (PinnedSection section : mNestedSections) {
+            if (section.holder instanceof PinnedSectionLabelView.Holder)
+                bindLabelHolder(section.holder, section.position);
+        }
+        clearVisibleViews();
+        if (mRecyclerView != null) mRecyclerView.requestLayout();
+    }
+
+    private final RecyclerView.OnScrollListener mOnScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            super.onScrollStateChanged(recyclerView, newState);
+            // a drag that started on the pinned view is no longer a tap or a long press
+            if (newState == RecyclerView.SCROLL_STATE_DRAGGING && mTouchTarget != null)
+                cancelTouchTarget();
+        }
+
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            super.onScrolled(recyclerView, dx, dy);
+            int delta = mPinnedVertical ? dy : dx;
+            if (delta != 0)
+                mScrollDirection = (delta > 0) != mPinnedReverse ? 1 : -1;
+            checkOnScrolled();
+        }
+    };
+
+    @Override
+    public void onDrawOver(Canvas canvas, RecyclerView parent, RecyclerView.State state) {
+        if (mPinnedSection != null) {
+            long start = mMetrics != null ? System.nanoTime() : 0;
+            //由深到浅绘制，上层section覆盖被推出的下层section，阴影只画在最下面一层
+            int deepest = mNestedSections.length - 1;
+            while (deepest >= 0 && mNestedSections[deepest].holder == null) deepest--;
+            for (int i = deepest; i >= 0; i--) {
+                PinnedSection section = mNestedSections[i];
+                if (section.holder != null)
+                    drawPinnedSection(canvas, section, section.distance, i == deepest);
+            }
+            drawPinnedSection(canvas, mPinnedSection, mSectionsDistance, deepest < 0);
+            if (mMetrics != null)
+                mMetrics.onPinnedSectionDrawn(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param distance   distance to the next section, limits the shadow
+     * @param drawShadow true to draw the shadow after the pinned view
+     */
+    private void drawPinnedSection(Canvas canvas, PinnedSection section, int distance, boolean drawShadow) {
+        canvas.save();
+
+        View view = section.holder.itemView;
+        int width = view.getWidth();
+        int height = view.getHeight();
+
+        //裁剪到悬挂视图及阴影范围，被下一个section推出时阴影随之缩短
+        int shadow = drawShadow && mShadow != null ? Math.max(0, Math.min(mShadowHeight, distance)) : 0;
+        int clipLeft = section.left;
+        int clipTop = section.top;
+        if (section == mPinnedSection && isSectionTransitioned() && mSectionTransition.isClippedByNextSection()) {
+            // the view rests at the edge, it is cut where the pushed view would end
+            if (mPinnedVertical)
+                clipTop += mPinnedReverse ? -mTranslate : mTranslate;
+            else
+                clipLeft += mPinnedReverse ? -mTranslate : mTranslate;
+        }
+        if (mPinnedVertical) {
+            if (mPinnedReverse)
+                canvas.clipRect(0, clipTop - shadow, mRecyclerView.getWidth(), mRecyclerView.getHeight());
+            else
+                canvas.clipRect(0, 0, mRecyclerView.getWidth(), clipTop + height + shadow);
+        } else {
+            if (mPinnedReverse)
+                canvas.clipRect(clipLeft - shadow, 0, mRecyclerView.getWidth(), mRecyclerView.getHeight());
+            else
+                canvas.clipRect(0, 0, clipLeft + width + shadow, mRecyclerView.getHeight());
+        }
+
+        canvas.translate(section.left, section.top);
+        // the list's own child is drawn a second time at the pinned location
+        drawPinnedView(canvas, view);
+
+        //绘制阴影
+        if (shadow > 0) {
+            if (mPinnedVertical)
+                canvas.translate(0, mPinnedReverse ? -mShadowHeight : height);
+            else
+                canvas.translate(mPinnedReverse ? -mShadowHeight : width, 0);
+            mShadow.draw(canvas, mPinnedVertical ? width : height);
+        }
+        canvas.restore();
+    }
+
+    /**
+     * 在画布原点绘制悬挂视图<br/>
+     * The view is drawn without a parent, so its transform and alpha, e.g. set by a {@link SectionTransition},
+     * are applied to the canvas here, an alpha below 1 through an offscreen layer.
+     *
+     * @param view detached pinned view, or the list's own attached section child
+     */
+    void drawPinnedView(Canvas canvas, View view) {
+        int saveCount = canvas.save();
+        Matrix matrix = view.getMatrix();
+        if (!matrix.isIdentity())
+            canvas.concat(matrix);
+        float alpha = view.getAlpha();
+        if (alpha < 1)
+            //noinspection deprecation
+            canvas.saveLayerAlpha(0, 0, view.getWidth(), view.getHeight(), (int) (alpha * 255), Canvas.ALL_SAVE_FLAG);
+        view.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    private void createPinnedSection(int position) {
+        createPinnedSection(position, false);
+    }
+
+    /**
+     * @param pending true to pin a placeholder for position, whose section is not loaded yet
+     */
+    private void createPinnedSection(int position, boolean pending) {
+
+        removePinnedSection();
+        if (DEBUG) Log.d(TAG, "createPinnedSection: " + position + (pending ? " pending" : ""));
+        // try to recycle shadow
+        PinnedSection pinnedShadow = mRecycleSection;
+        mRecycleSection = null;
+        mTranslate = 0;
+        mSectionsDistance = 0;
+        if (pinnedShadow == null) {
+            pinnedShadow = new PinnedSection();
+        }
+        if (pending)
+            setPendingSectionHolder(pinnedShadow, position);
+        else
+            setPinnedSectionHolder(pinnedShadow, position);
+
+        mPinnedSection = pinnedShadow;
+
+        updatePinnedSectionLocation();
+
+    }
+
+    /**
+     * 列表中该section的视图可用时直接使用，否则取出独立的悬挂ViewHolder
+     *
+     * @param section  section to set the holder on, without holder
+     * @param position section adapter position of the section
+     */
+    private void setPinnedSectionHolder(PinnedSection section, int position) {
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        section.position = position;
+        section.id = adapter.hasStableIds() ? adapter.getItemId(position) : NO_ID;
+        if (mPinnedSectionAttachedViewEnabled && !(adapter instanceof LabelSectionAdapter)) {
+            RecyclerView.ViewHolder child = mRecyclerView.findViewHolderForAdapterPosition(toListPosition(position));
+            if (child != null) {
+                section.holder = child;
+                section.attached = true;
+                return;
+            }
+        }
+        section.holder = obtainPinnedHolder(position, null);
+        section.attached = false;
+    }
+
+    /**
+     * 取出占位的悬挂ViewHolder，尺寸与同类型的section相同，分页加载后被真正的section替换
+     *
+     * @param section  section to set the placeholder on, without holder
+     * @param position first visible section adapter position, whose section is pending
+     */
+    private void setPendingSectionHolder(PinnedSection section, int position) {
+        PagedSectionAdapter adapter = (PagedSectionAdapter) mSectionAdapter;
+        section.position = position;
+        section.id = NO_ID;
+        section.pending = true;
+        section.attached = false;
+
+        int viewType = adapter.getPendingSectionViewType(position);
+        RecyclerView.ViewHolder viewHolder = mPinnedViewHolderPool.get(viewType);
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionObtained(viewHolder != null);
+        if (viewHolder == null) {
+            viewHolder = mRecyclerView.getAdapter().createViewHolder(mRecyclerView, viewType);
+        }
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        adapter.onBindPendingSection(viewHolder, position);
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionBound(System.nanoTime() - start);
+        // a measured section of the same type is reused as is
+        measurePinnedSection(viewHolder, viewType);
+        section.holder = viewHolder;
+    }
+
+    /**
+     * 列表中的section视图即将回收，换成独立的悬挂ViewHolder
+     */
+    private void detachPinnedSectionHolder(PinnedSection section) {
+        if (!section.attached) return;
+        RecyclerView.ViewHolder child = section.holder;
+        section.attached = false;
+        section.holder = obtainPinnedHolder(section.position, child);
+        invalidate();
+    }
+
+    /**
+     * 从缓存中取出或新建ViewHolder，绑定并测量
+     *
+     * @param position section adapter position of the section
+     * @param source   attached holder of the same section to copy the state from, can be null
+     * @return holder ready to be drawn as a pinned section
+     */
+    private RecyclerView.ViewHolder obtainPinnedHolder(int position, @Nullable RecyclerView.ViewHolder source) {
+        if (mPrefetchedHolder != null && mPrefetchPosition == position) {
+            // prepared while idle: only check that the size still fits
+            RecyclerView.ViewHolder viewHolder = mPrefetchedHolder;
+            mPrefetchedHolder = null;
+            mPrefetchPosition = NO_POSITION;
+            if (viewHolder instanceof PinnedSectionLabelView.Holder) return viewHolder;
+            measurePinnedSection(viewHolder, viewHolder.getItemViewType());
+            return viewHolder;
+        }
+        if (mSectionAdapter instanceof LabelSectionAdapter) return obtainLabelHolder(position);
+
+        // holders are created and bound by the list's adapter, like the list's own children
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        int listPosition = toListPosition(position);
+        int viewType = adapter.getItemViewType(listPosition);
+        RecyclerView.ViewHolder viewHolder = mPinnedViewHolderPool.get(viewType);
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionObtained(viewHolder != null);
+        if (viewHolder == null) {
+            viewHolder = adapter.createViewHolder(mRecyclerView, viewType);
+        }
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        if (source == null || !(mSectionAdapter instanceof SectionStateAdapter)
+                || !((SectionStateAdapter) mSectionAdapter).copyPinnedSectionState(source, viewHolder, position))
+            adapter.bindViewHolder(viewHolder, listPosition);
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionBound(System.nanoTime() - start);
+
+        measurePinnedSection(viewHolder, viewType);
+        return viewHolder;
+    }
+
+    /**
+     * 取出或新建只绘制文字的悬挂视图，不经过adapter
+     *
+     * @param position section adapter position of the section
+     */
+    private RecyclerView.ViewHolder obtainLabelHolder(int position) {
+        RecyclerView.ViewHolder viewHolder = mPinnedViewHolderPool.get(PinnedSectionLabelView.VIEW_TYPE);
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionObtained(viewHolder != null);
+        if (viewHolder == null) {
+            viewHolder = new PinnedSectionLabelView.Holder(
+                    new PinnedSectionLabelView(mRecyclerView.getContext(), mLabelStyle));
+        }
+        bindLabelHolder(viewHolder, position);
+        return viewHolder;
+    }
+
+    /**
+     * 绑定标签并直接布局，尺寸由文字决定，无需measure
+     */
+    private void bindLabelHolder(RecyclerView.ViewHolder viewHolder, int position) {
+        LabelSectionAdapter adapter = (LabelSectionAdapter) mSectionAdapter;
+        PinnedSectionLabelView view = (PinnedSectionLabelView) viewHolder.itemView;
+        int contentWidth = mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight();
+        int contentHeight = mRecyclerView.getHeight() - mRecyclerView.getPaddingTop() - mRecyclerView.getPaddingBottom();
+
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        view.bind(adapter.getPinnedSectionLabel(position), adapter.getPinnedSectionColor(position),
+                contentWidth - 2 * mLabelStyle.padding);
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionBound(System.nanoTime() - start);
+
+        int width = mPinnedVertical ? contentWidth : Math.min(view.getLabelWidth(), contentWidth);
+        int height = mPinnedVertical ? view.getLabelHeight() : contentHeight;
+        if (view.getWidth() != width || view.getHeight() != height)
+            view.layout(0, 0, width, height);
+    }
+
+    /**
+     * 测量并布局悬挂视图，尺寸未变化时跳过measure与layout
+     *
+     * @param viewHolder bound pinned holder
+     * @param viewType   view type of the pinned position
+     */
+    private void measurePinnedSection(RecyclerView.ViewHolder viewHolder, int viewType) {
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        doMeasurePinnedSection(viewHolder, viewType);
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionMeasured(System.nanoTime() - start);
+    }
+
+    private void doMeasurePinnedSection(RecyclerView.ViewHolder viewHolder, int viewType) {
+        View itemView = viewHolder.itemView;
+
+        // read layout parameters
+        ViewGroup.LayoutParams layoutParams = itemView.getLayoutParams();
+        if (layoutParams == null) {
+            layoutParams = mRecyclerView.getLayoutManager().generateDefaultLayoutParams();
+            itemView.setLayoutParams(layoutParams);
+        }
+
+        int contentWidth = mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight();
+        int contentHeight = mRecyclerView.getHeight() - mRecyclerView.getPaddingTop() - mRecyclerView.getPaddingBottom();
+
+        //滚动方向上按布局参数测量，另一方向撑满
+        int ws, hs;
+        if (mPinnedVertical) {
+            ws = View.MeasureSpec.makeMeasureSpec(contentWidth, View.MeasureSpec.EXACTLY);
+            hs = makeScrollAxisMeasureSpec(layoutParams.height, contentHeight);
+        } else {
+            ws = makeScrollAxisMeasureSpec(layoutParams.width, contentWidth);
+            hs = View.MeasureSpec.makeMeasureSpec(contentHeight, View.MeasureSpec.EXACTLY);
+        }
+
+        PinnedMeasure measure = mPinnedMeasureCache.get(viewType);
+        if (measure != null && measure.matches(itemView, ws, hs)) {
+            if (!itemView.isLayoutRequested()) {
+                // same type, same width, same size: rebinding is enough
+                itemView.invalidate();
+                return;
+            }
+            if (isPinnedSectionSizeStable(viewType)) {
+                // only the measure is skipped: the layout clears the request, so later ones reach the root again
+                itemView.layout(0, 0, measure.width, measure.height);
+                itemView.invalidate();
+                return;
+            }
+        }
+
+        // measure & layout
+        itemView.measure(ws, hs);
+        itemView.layout(0, 0, itemView.getMeasuredWidth(), itemView.getMeasuredHeight());
+
+        if (measure == null) {
+            measure = new PinnedMeasure();
+            mPinnedMeasureCache.put(viewType, measure);
+        }
+        measure.widthSpec = ws;
+        measure.heightSpec = hs;
+        measure.width = itemView.getWidth();
+        measure.height = itemView.getHeight();
+    }
+
+    private static int makeScrollAxisMeasureSpec(int layoutParamSize, int maxSize) {
+        int mode = View.MeasureSpec.getMode(layoutParamSize);
+        int size = View.MeasureSpec.getSize(layoutParamSize);
+
+        if (mode == View.MeasureSpec.UNSPECIFIED) mode = View.MeasureSpec.EXACTLY;
+        if (size > maxSize) size = maxSize;
+
+        return View.MeasureSpec.makeMeasureSpec(size, mode);
+    }
+
+    private boolean isPinnedSectionSizeStable(int viewType) {
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        return adapter instanceof SizeStableAdapter
+                && ((SizeStableAdapter) adapter).hasStablePinnedSectionSize(viewType);
+    }
+
+    private void cancelPinnedSectionPrefetch() {
+        if (mPrefetchScheduled) {
+            Looper.myQueue().removeIdleHandler(mPrefetchIdleHandler);
+            mPrefetchScheduled = false;
+        }
+    }
+
+    /**
+     * 根据滚动方向预测下一个悬挂的section，安排在空闲时准备
+     */
+    private void schedulePinnedSectionPrefetch() {
+        if (!mPinnedSectionPrefetchEnabled || mPinnedSection == null || mPinnedSection.pending || mScrollDirection == 0)
+            return;
+        int anchor = mPinnedSection.position;
+        if (anchor == mPrefetchAnchorPosition && mScrollDirection == mPrefetchAnchorDirection) return;
+        mPrefetchAnchorPosition = anchor;
+        mPrefetchAnchorDirection = mScrollDirection;
+
+        int position;
+        if (mScrollDirection > 0)
+            // the next section reaches the edge while its child is still attached
+            position = mPinnedSectionAttachedViewEnabled ? NO_POSITION : mNextSectionPosition;
+        else
+            position = anchor > 0 ? ((Adapter) mSectionAdapter).findSectionPosition(anchor - 1) : NO_POSITION;
+        if (position < 0 || position == mPrefetchPosition) return;
+
+        mPrefetchPosition = position;
+        if (mPrefetchedHolder != null) {
+            mPinnedViewHolderPool.put(mPrefetchedHolder);
+            mPrefetchedHolder = null;
+        }
+        if (!mPrefetchScheduled) {
+            mPrefetchScheduled = true;
+            Looper.myQueue().addIdleHandler(mPrefetchIdleHandler);
+        }
+    }
+
+    private final MessageQueue.IdleHandler mPrefetchIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mPrefetchScheduled = false;
+            int position = mPrefetchPosition;
+            RecyclerView.Adapter adapter = mSectionAdapter;
+            if (position == NO_POSITION || mPrefetchedHolder != null || mPinnedSection == null
+                    || adapter == null || position >= adapter.getItemCount() || mRecyclerView.getWidth() == 0)
+                return false;
+            if (DEBUG) Log.d(TAG, "prefetchPinnedSection: " + position);
+            mPrefetchedHolder = obtainPinnedHolder(position, null);
+            return false;
+        }
+    };
+
+    /**
+     * 丢弃预先准备的悬挂视图，数据或尺寸变化后不再有效
+     */
+    private void dropPrefetchedSection() {
+        if (mPrefetchedHolder != null) {
+            mPinnedViewHolderPool.put(mPrefetchedHolder);
+            mPrefetchedHolder = null;
+        }
+        mPrefetchPosition = NO_POSITION;
+        mPrefetchAnchorPosition = NO_POSITION;
+    }
+
+    /**
+     * 更新悬挂视图Section
+     *
+     * @param firstVisibleItemPosition
+     */
+    private void updatePinnedSection(int firstVisibleItemPosition) {
+        //找出目标悬挂section位置
+        int pinnedSectionPosition = findPinnedSection(firstVisibleItemPosition);
+        if (pinnedSectionPosition == PagedSectionAdapter.SECTION_PENDING) {
+            //所属section尚未加载，悬挂占位视图
+            if (mPinnedSection != null && mPinnedSection.pending) {
+                mPinnedSection.position = firstVisibleItemPosition;
+                updatePinnedSectionLocation();
+            } else {
+                createPinnedSection(firstVisibleItemPosition, true);
+            }
+            return;
+        }
+        if (pinnedSectionPosition < 0) {
+            //第一个可见item之前没有section
+            removePinnedSection();
+            return;
+        }
+
+        if (mPinnedSection != null && mPinnedSection.changed
+                && !rematchPinnedSection(mPinnedSection, pinnedSectionPosition, 0))
+            tearDownPinnedSections(0);
+
+        if (mPinnedSection != null && !mPinnedSection.pending && mPinnedSection.position == pinnedSectionPosition) {
+            //若当前绘制的悬挂位置已经等于目标悬挂位置，更新具体位置
+            if (DEBUG) Log.d(TAG, "updatePinnedSection: update position " + pinnedSectionPosition);
+
+            updatePinnedSectionLocation();
+        } else {
+            createPinnedSection(pinnedSectionPosition);
+        }
+    }
+
+    /**
+     * 更新悬挂视图在滚动方向上的位置
+     */
+    private void updatePinnedSectionLocation() {
+        mNextSectionPosition = findNextSectionByPinnedSection();
+        View nexSectionView = mNextSectionPosition < 0 ? null : mRecyclerView.getLayoutManager().findViewByPosition(toListPosition(mNextSectionPosition));
+        updatePinnedSectionLocation(nexSectionView);
+    }
+
+    /**
+     * @param nexSectionView view of the next section, null if it is not attached
+     */
+    private void updatePinnedSectionLocation(View nexSectionView) {
+        if (nexSectionView == null) {
+            if (DEBUG) Log.d(TAG, "updatePinnedSectionLocation: nextSectionPosition:" + mNextSectionPosition);
+            //在看不到下一个section时，保证绘制阴影高度为正常高度
+            mSectionsDistance = mFirstVisiblePosition == mFirstCompletelyVisiblePosition ? 0 : mShadowHeight;
+            mTranslate = 0;
+            layoutPinnedSection();
+            applySectionTransition();
+            return;
+        }
+
+        //悬挂视图在固定边上的位置与下一个section相对边的距离
+        mSectionsDistance = getStartDistance(nexSectionView) - getPinnedSectionSize();
+        if (DEBUG) Log.d(TAG, "updatePinnedSectionLocation: distance=" + mSectionsDistance);
+        if (mSectionsDistance < 0)
+            mTranslate = mSectionsDistance;
+        else
+            mTranslate = 0;
+
+        layoutPinnedSection();
+        applySectionTransition();
+    }
+
+    /**
+     * @return true if the top level pinned view is moved by {@link #mSectionTransition} instead of the push
+     */
+    private boolean isSectionTransitioned() {
+        return mSectionTransition != null && mPinnedSection != null && !mPinnedSection.attached;
+    }
+
+    /**
+     * 按推出距离更新切换效果，只修改视图属性
+     */
+    private void applySectionTransition() {
+        if (!isSectionTransitioned()) return;
+        View pinnedView = mPinnedSection.holder.itemView;
+        mSectionTransition.onSectionTransition(pinnedView, mSectionsDistance, getPinnedSectionSize(),
+                mPinnedVertical, mPinnedReverse);
+    }
+
+    /**
+     * @return size of the pinned view along the scroll axis
+     */
+    private int getPinnedSectionSize() {
+        View pinnedView = mPinnedSection.holder.itemView;
+        return mPinnedVertical ? pinnedView.getHeight() : pinnedView.getWidth();
+    }
+
+    /**
+     * @return distance from the pinned edge to the near side of the child, negative if it crosses the edge
+     */
+    private int getStartDistance(View child) {
+        if (mPinnedVertical)
+            return mPinnedReverse ? mRecyclerView.getHeight() - mRecyclerView.getPaddingBottom() - child.getBottom() : child.getTop() - mRecyclerView.getPaddingTop();
+        return mPinnedReverse ? mRecyclerView.getWidth() - mRecyclerView.getPaddingRight() - child.getRight() : child.getLeft() - mRecyclerView.getPaddingLeft();
+    }
+
+    /**
+     * @return distance from the pinned edge to the far side of the child
+     */
+    private int getEndDistance(View child) {
+        if (mPinnedVertical)
+            return mPinnedReverse ? mRecyclerView.getHeight() - mRecyclerView.getPaddingBottom() - child.getTop() : child.getBottom() - mRecyclerView.getPaddingTop();
+        return mPinnedReverse ? mRecyclerView.getWidth() - mRecyclerView.getPaddingRight() - child.getLeft() : child.getRight() - mRecyclerView.getPaddingLeft();
+    }
+
+    /**
+     * 判断上次查找结果是否仍然有效：第一个(完全)可见的子view未越过边界。有效时只更新悬挂位置
+     *
+     * @return true if the pinned section cannot have changed since the last check and its location was updated
+     */
+    private boolean tryUpdatePinnedSectionLocation() {
+        if (mPinnedSection == null || mFirstVisibleView == null || mFirstCompletelyVisibleView == null)
+            return false;
+        if (!isChildAt(mFirstVisibleView, mFirstVisiblePosition)
+                || !isChildAt(mFirstCompletelyVisibleView, mFirstCompletelyVisiblePosition))
+            return false;
+
+        int firstStart = getStartDistance(mFirstVisibleView);
+        if (getEndDistance(mFirstVisibleView) <= 0 || firstStart > 0)
+            return false;
+        if (mFirstCompletelyVisibleView != mFirstVisibleView) {
+            int contentSize = mPinnedVertical
+                    ? mRecyclerView.getHeight() - mRecyclerView.getPaddingTop() - mRecyclerView.getPaddingBottom()
+                    : mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight();
+            if (firstStart == 0 || getStartDistance(mFirstCompletelyVisibleView) < 0
+                    || getEndDistance(mFirstCompletelyVisibleView) > contentSize)
+                return false;
+        }
+
+        //悬挂的section不变，只需根据下一个section更新位置，不再调用adapter
+        View nextSectionView = mNextSectionPosition < 0 ? null : mRecyclerView.getLayoutManager().findViewByPosition(toListPosition(mNextSectionPosition));
+        updatePinnedSectionLocation(nextSectionView);
+        return true;
+    }
+
+    private boolean isChildAt(View child, int position) {
+        return child.getParent() == mRecyclerView && mRecyclerView.getChildAdapterPosition(child) == position;
+    }
+
+    /**
+     * 悬挂的是占位视图时数据发生变化，在下一次布局后重新查找section<br/>
+     * The section of a placeholder may have been loaded by the change, but no scroll follows to look it up.
+     */
+    private void schedulePendingSectionCheck() {
+        if (mPinnedSection != null && mPinnedSection.pending) scheduleSectionCheck();
+    }
+
+    /**
+     * 在下一次布局后重新查找悬挂的section，布局前还不知道哪个section拥有第一个可见的行
+     */
+    private void scheduleSectionCheck() {
+        if (mRecyclerView == null) return;
+        mSectionCheckScheduled = true;
+        mRecyclerView.removeCallbacks(mSectionCheck);
+        ViewCompat.postOnAnimation(mRecyclerView, mSectionCheck);
+    }
+
+    private void runSectionCheck() {
+        mSectionCheckScheduled = false;
+        mRecyclerView.removeCallbacks(mSectionCheck);
+        clearVisibleViews();
+        checkOnScrolled();
+        mRecyclerView.invalidate();
+    }
+
+    private void clearVisibleViews() {
+        mFirstVisibleView = null;
+        mFirstCompletelyVisibleView = null;
+    }
+
+    /**
+     * 根据方向、固定边与推出距离计算悬挂视图的绘制位置
+     */
+    private void layoutPinnedSection() {
+        // a transition moves the view through its own properties
+        layoutPinnedSection(mPinnedSection, isSectionTransitioned() ? 0 : mTranslate);
+    }
+
+    /**
+     * @param offset distance of the pinned view from the pinned edge, negative while pushed off
+     */
+    private void layoutPinnedSection(PinnedSection section, int offset) {
+        View pinnedView = section.holder.itemView;
+        if (mPinnedVertical) {
+            section.left = mRecyclerView.getPaddingLeft();
+            section.top = mPinnedReverse
+                    ? mRecyclerView.getHeight() - mRecyclerView.getPaddingBottom() - pinnedView.getHeight() - offset
+                    : mRecyclerView.getPaddingTop() + offset;
+        } else {
+            section.left = mPinnedReverse
+                    ? mRecyclerView.getWidth() - mRecyclerView.getPaddingRight() - pinnedView.getWidth() - offset
+                    : mRecyclerView.getPaddingLeft() + offset;
+            section.top = mRecyclerView.getPaddingTop();
+        }
+    }
+
+    /**
+     * 更新多级section：每一级堆叠在上一级之下，并被同级或更高级的下一个section推出
+     *
+     * @param lookup true to look the nested sections up again, false if the first visible position is unchanged
+     */
+    private void updateNestedSections(boolean lookup) {
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        int levels = adapter instanceof MultiLevelAdapter
+                ? ((MultiLevelAdapter) adapter).getSectionLevelCount() - 1 : 0;
+        if (mPinnedSection == null || levels <= 0) {
+            removeNestedSections(0);
+            return;
+        }
+        if (mNestedSections.length != levels) {
+            removeNestedSections(0);
+            mNestedSections = new PinnedSection[levels];
+            for (int i = 0; i < levels; i++) {
+                mNestedSections[i] = new PinnedSection();
+            }
+        }
+
+        MultiLevelAdapter multiLevelAdapter = (MultiLevelAdapter) adapter;
+        // nothing is stacked below a placeholder
+        int parentPosition = mPinnedSection.pending ? -1 : mPinnedSection.position;
+        int stackEnd = getPinnedSectionSize() + mTranslate;
+        for (int i = 0; i < levels; i++) {
+            PinnedSection section = mNestedSections[i];
+            if (lookup) {
+                int level = i + 1;
+                int position = parentPosition < 0 ? -1
+                        : multiLevelAdapter.findSectionPosition(toSectionPosition(mFirstVisiblePosition), level);
+                //不属于上一级当前section的子section不悬挂
+                if (position < parentPosition) position = -1;
+                if (section.holder != null && section.changed
+                        && (position < 0 || !rematchPinnedSection(section, position, level))) {
+                    tearDownPinnedSections(level);
+                }
+                if (section.holder != null && section.position != position) {
+                    removeNestedSections(i);
+                }
+                if (position >= 0 && section.holder == null) {
+                    setPinnedSectionHolder(section, position);
+                }
+                section.nextPosition = position < 0 ? -1 : multiLevelAdapter.findNextSectionPosition(position, level);
+            }
+            if (section.holder == null) {
+                parentPosition = -1;
+                continue;
+            }
+
+            View pinnedView = section.holder.itemView;
+            int size = mPinnedVertical ? pinnedView.getHeight() : pinnedView.getWidth();
+            View nextSectionView = section.nextPosition < 0 ? null : mRecyclerView.getLayoutManager().findViewByPosition(toListPosition(section.nextPosition));
+            section.distance = nextSectionView == null ? mShadowHeight : getStartDistance(nextSectionView) - stackEnd - size;
+            section.translate = section.distance < 0 ? section.distance : 0;
+            stackEnd += section.translate;
+            layoutPinnedSection(section, stackEnd);
+            stackEnd += size;
+            parentPosition = section.position;
+        }
+    }
+
+    /**
+     * 回收从from开始的各级子section
+     *
+     * @param from index in {@link #mNestedSections}
+     */
+    private void removeNestedSections(int from) {
+        for (int i = from; i < mNestedSections.length; i++) {
+            releasePinnedSectionHolder(mNestedSections[i]);
+        }
+    }
+
+    /**
+     * 从LayoutManager读取滚动方向及悬挂的边
+     */
+    private void updatePinnedOrientation() {
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        boolean vertical = !layoutManager.canScrollHorizontally();
+        boolean reverse = false;
+        if (layoutManager instanceof LinearLayoutManager)
+            reverse = ((LinearLayoutManager) layoutManager).getReverseLayout();
+        else if (layoutManager instanceof StaggeredGridLayoutManager)
+            reverse = ((StaggeredGridLayoutManager) layoutManager).getReverseLayout();
+        if (!vertical && ViewCompat.getLayoutDirection(mRecyclerView) == ViewCompat.LAYOUT_DIRECTION_RTL)
+            reverse = !reverse;
+
+        if (vertical != mPinnedVertical || reverse != mPinnedReverse) {
+            mPinnedVertical = vertical;
+            mPinnedReverse = reverse;
+            removePinnedSection();
+            dropPrefetchedSection();
+            if (mShadow != null)
+                initShadow(true);
+        }
+    }
+
+    /**
+     * 移除pinnedSection并回收复用
+     */
+    private void removePinnedSection() {
+        if (DEBUG) Log.d(TAG, "removePinnedSection: ");
+        mSectionsDistance = 0;
+        clearVisibleViews();
+        removeNestedSections(0);
+        if (mPinnedSection != null) {
+            releasePinnedSectionHolder(mPinnedSection);
+            mRecycleSection = mPinnedSection;
+            mPinnedSection = null;
+        }
+    }
+
+    /**
+     * 回收悬挂的ViewHolder，列表自身的子view不回收
+     */
+    private void releasePinnedSectionHolder(PinnedSection section) {
+        if (section.holder != null && !section.attached) {
+            if (mSectionTransition != null)
+                mSectionTransition.onSectionTransitionEnd(section.holder.itemView);
+            mPinnedViewHolderPool.put(section.holder);
+        }
+        section.holder = null;
+        section.attached = false;
+        section.pending = false;
+        section.changed = false;
+    }
+
+    /**
+     * 找出悬挂的Section
+     *
+     * @param position
+     * @return
+     */
+    private int findPinnedSection(int position) {
+        // rows added by a wrapper, such as a refresh header, are at the top: nothing is pinned
+        if (position < 0) return NO_POSITION;
+        Adapter adapter = (Adapter) mSectionAdapter;
+        int sectionPosition = adapter.findSectionPosition(position);
+        return sectionPosition;
+    }
+
+    private int findNextSectionByPinnedSection() {
+        Adapter adapter = (Adapter) mSectionAdapter;
+        int sectionPosition = adapter.findNextSectionPosition(mPinnedSection.position);
+        return sectionPosition;
+    }
+
+    /**
+     * 发生滚动时检查
+     */
+    void checkOnScrolled() {
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (layoutManager == null) return;
+        syncAdapter();
+        updatePinnedOrientation();
+        validateAttachedSections();
+        if (tryUpdatePinnedSectionLocation()) {
+            updateNestedSections(false);
+            schedulePinnedSectionPrefetch();
+            return;
+        }
+
+        mFirstVisiblePosition = mFirstVisiblePositionStrategy.findFirstVisiblePosition(mRecyclerView);
+        mFirstCompletelyVisiblePosition = mFirstVisiblePositionStrategy.findFirstCompletelyVisiblePosition(mRecyclerView);
+        if (mFirstVisiblePosition == NO_POSITION) {
+            // e.g. the data set was cleared: nothing is left to match the changed sections with
+            if (mPinnedSection != null && mPinnedSection.changed) tearDownPinnedSections(0);
+            return;
+        }
+
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        if (adapter instanceof Adapter) {
+            updatePinnedSection(toSectionPosition(mFirstVisiblePosition));
+            updateNestedSections(true);
+            schedulePinnedSectionPrefetch();
+            mFirstVisibleView = layoutManager.findViewByPosition(mFirstVisiblePosition);
+            mFirstCompletelyVisibleView = mFirstCompletelyVisiblePosition == NO_POSITION
+                    ? null : layoutManager.findViewByPosition(mFirstCompletelyVisiblePosition);
+        } else
+            throw new IllegalArgumentException("Does your adapter implement PinnedSectRecyclerView.Adapter?");
+    }
+
+    /**
+     * 列表的section视图被重新绑定到其他位置时，换成独立的悬挂ViewHolder
+     */
+    private void validateAttachedSections() {
+        if (mPinnedSection == null) return;
+        if (mPinnedSection.attached && mPinnedSection.holder.getAdapterPosition() != toListPosition(mPinnedSection.position))
+            detachPinnedSectionHolder(mPinnedSection);
+        for (PinnedSection section : mNestedSections) {
+            if (section.attached && section.holder.getAdapterPosition() != toListPosition(section.position))
+                detachPinnedSectionHolder(section);
+        }
+    }
+
+    private final RecyclerView.OnChildAttachStateChangeListener mChildAttachStateListener = new RecyclerView.OnChildAttachStateChangeListener() {
+        @Override
+        public void onChildViewAttachedToWindow(View view) {
+        }
+
+        @Override
+        public void onChildViewDetachedFromWindow(View view) {
+            if (mPinnedSection == null) return;
+            //子view回收前仍保持绑定状态，可以复制给悬挂ViewHolder
+            if (mPinnedSection.attached && mPinnedSection.holder.itemView == view)
+                detachPinnedSectionHolder(mPinnedSection);
+            for (PinnedSection section : mNestedSections) {
+                if (section.attached && section.holder.itemView == view)
+                    detachPinnedSectionHolder(section);
+            }
+        }
+    };
+
+    public void setOnPinnedSectionTouchListener(OnPinnedSectionTouchListener onPinnedSectionTouchListener) {
+        mOnPinnedSectionTouchListener = onPinnedSectionTouchListener;
+    }
+
+    /**
+     * 设置覆盖在悬挂视图上方、自行处理触摸的区域，落在其中的触摸不会交给悬挂视图
+     *
+     * @param area area drawn over the pinned views, such as {@link PinnedSectionIndexBar}, null to remove it
+     */
+    public void setOverlayTouchArea(@Nullable OverlayTouchArea area) {
+        mOverlayTouchArea = area;
+    }
+
+    @Nullable
+    public OverlayTouchArea getOverlayTouchArea() {
+        return mOverlayTouchArea;
+    }
+
+    /**
+     * 列表开始拖动，取消悬挂视图上的点击与长按
+     */
+    private void cancelTouchTarget() {
+        long now = SystemClock.uptimeMillis();
+        MotionEvent cancel = MotionEvent.obtain(now, now, MotionEvent.ACTION_CANCEL, 0, 0, 0);
+        dispatchTouchTargetEvent(cancel);
+        cancel.recycle();
+    }
+
+    private void clearTouchTarget() {
+        if (mTouchTarget != null && !mTouchSection.pending) {
+            // an unpress the view posts itself never runs without a window
+            mTouchTarget.setPressed(false);
+            mTouchTarget.invalidate();
+            invalidate();
+        }
+        mTouchTarget = null;
+        mTouchSection = null;
+        mTouchChild = null;
+    }
+
+    /**
+     * 在悬挂视图内查找触摸点下最深的可点击子view，点击与长按由手势检测直接触发
+     *
+     * @param view pinned view or one of its descendants
+     * @param x    touch x in the coordinates of view
+     * @param y    touch y in the coordinates of view
+     * @return clickable descendant of view under (x, y), null if there is none
+     */
+    private View findTouchChild(View view, float x, float y) {
+        if (!(view instanceof ViewGroup)) return null;
+        ViewGroup group = (ViewGroup) view;
+        for (int i = group.getChildCount() - 1; i >= 0; i--) {
+            View child = group.getChildAt(i);
+            if (child.getVisibility() != View.VISIBLE) continue;
+            mTouchPoint[0] = x + group.getScrollX() - child.getLeft();
+            mTouchPoint[1] = y + group.getScrollY() - child.getTop();
+            Matrix matrix = child.getMatrix();
+            if (!matrix.isIdentity()) {
+                if (!matrix.invert(mTouchMatrix)) continue;
+                mTouchMatrix.mapPoints(mTouchPoint);
+            }
+            float childX = mTouchPoint[0];
+            float childY = mTouchPoint[1];
+            if (childX < 0 || childY < 0 || childX >= child.getWidth() || childY >= child.getHeight()) continue;
+            View target = findTouchChild(child, childX, childY);
+            if (target != null) return target;
+            if (child.isEnabled() && (child.isClickable() || child.isLongClickable())) return child;
+        }
+        return null;
+    }
+
+    /**
+     * 把事件换算到悬挂视图的坐标后分发给它<br/>
+     * The view tree handles the events as in the list: its own hit-testing, pressed states, hotspots and touch
+     * handling. It is not in a window, so the click and long click checks it posts would never run on API 24 and
+     * later, and only at the next traversal before. They are dropped after DOWN, and UP reaches the view unpressed,
+     * so that it does not click itself: the gesture detector clicks {@link #mTouchChild} instead.
+     */
+    private void dispatchToPinnedView(MotionEvent e) {
+        View view = mTouchTarget;
+        int action = e.getActionMasked();
+        if (action == MotionEvent.ACTION_UP) view.setPressed(false);
+        float offsetX = -mTouchSection.left;
+        float offsetY = -mTouchSection.top;
+        Matrix matrix = view.getMatrix();
+        if (matrix.isIdentity()) {
+            e.offsetLocation(offsetX, offsetY);
+            view.dispatchTouchEvent(e);
+            e.offsetLocation(-offsetX, -offsetY);
+        } else {
+            MotionEvent event = MotionEvent.obtain(e);
+            event.offsetLocation(offsetX, offsetY);
+            if (matrix.invert(mTouchMatrix))
+                event.transform(mTouchMatrix);
+            else
+                // scaled down to nothing
+                event.setAction(MotionEvent.ACTION_CANCEL);
+            view.dispatchTouchEvent(event);
+            event.recycle();
+        }
+        if (action == MotionEvent.ACTION_DOWN) view.cancelPendingInputEvents();
+        // invalidations of the children stop at the detached root
+        view.invalidate();
+        invalidate();
+    }
+
+    private boolean isPinnedViewTouched(PinnedSection section, float x, float y) {
+        View view = section.holder.itemView;
+        // faded out by a transition: the touch belongs to what is drawn below it
+        if (view.getAlpha() < MIN_TOUCH_ALPHA) return false;
+        if (!mapToPinnedView(section, x, y)) return false;
+        float viewX = mTouchPoint[0];
+        float viewY = mTouchPoint[1];
+        return viewX >= 0 && viewY >= 0 && viewX < view.getWidth() && viewY < view.getHeight();
+    }
+
+    /**
+     * Maps (x, y) through the transform {@link #drawPinnedView} draws the pinned view with, into
+     * {@link #mTouchPoint}
+     *
+     * @return false if the view is scaled down to nothing
+     */
+    private boolean mapToPinnedView(PinnedSection section, float x, float y) {
+        mTouchPoint[0] = x - section.left;
+        mTouchPoint[1] = y - section.top;
+        Matrix matrix = section.holder.itemView.getMatrix();
+        if (matrix.isIdentity()) return true;
+        if (!matrix.invert(mTouchMatrix)) return false;
+        mTouchMatrix.mapPoints(mTouchPoint);
+        return true;
+    }
+
+    /**
+     * @return pinned section drawn at (x, y), the top level is drawn over nested ones
+     */
+    private PinnedSection findTouchedSection(float x, float y) {
+        if (mPinnedSection == null) return null;
+        if (isPinnedViewTouched(mPinnedSection, x, y)) return mPinnedSection;
+        for (PinnedSection section : mNestedSections) {
+            if (section.holder != null && isPinnedViewTouched(section, x, y)) return section;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+        final float x = e.getX();
+        final float y = e.getY();
+
+        final int action = e.getActionMasked();
+        if (action != MotionEvent.ACTION_DOWN) {
+            // RecyclerView drops the active listener after DOWN, the rest of the gesture is offered here
+            if (mTouchTarget == null) return false;
+            dispatchTouchTargetEvent(e);
+            // only the end of a tap is claimed: moves are left to the list's own drag handling, with its touch slop,
+            // nested scrolling and edge effects
+            return action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL;
+        }
+        // a gesture that never ended, e.g. the list was detached in the middle of it
+        if (mTouchTarget != null) clearTouchTarget();
+
+        // a touch during a fling only stops the fling, like on any other child
+        if (rv.getScrollState() != RecyclerView.SCROLL_STATE_SETTLING
+                && (mOverlayTouchArea == null || !mOverlayTouchArea.isTouched(x, y))) {
+            mTouchSection = findTouchedSection(x, y);
+            if (mTouchSection != null) {
+                // user touched pinned view, the children below it never see this gesture
+                mTouchTarget = mTouchSection.holder.itemView;
+                // a placeholder only hands drags to the list
+                if (!mTouchSection.pending) {
+                    mTouchChild = findTouchChild(mTouchTarget, mTouchPoint[0], mTouchPoint[1]);
+                    dispatchToPinnedView(e);
+                    // also pressed when the view delays its pressed state, as the check for it was dropped
+                    if (mTouchChild != null) mTouchChild.setPressed(true);
+                }
+                mGestureDetector.onTouchEvent(e);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+        if (mTouchTarget == null) return;
+        dispatchTouchTargetEvent(e);
+    }
+
+    /**
+     * 把触摸悬挂视图的手势交给悬挂视图与GestureDetector，抬起或取消时结束
+     */
+    private void dispatchTouchTargetEvent(MotionEvent e) {
+        if (!mTouchSection.pending) dispatchToPinnedView(e);
+        boolean ret = mGestureDetector.onTouchEvent(e);
+        if (DEBUG) Log.d(TAG, "onTouchEvent: ret=" + ret);
+        int action = e.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
+            clearTouchTarget();
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    /**
+     * 数据变化覆盖悬挂位置时原地重新绑定，payload不为空时局部绑定
+     *
+     * @param positionStart first changed position
+     * @param itemCount     number of changed items
+     * @param payload       payload from notifyItemRangeChanged, can be null
+     */
+    private void onPinnedSectionRangeChanged(int positionStart, int itemCount, Object payload) {
+        if (mPinnedSection == null) return;
+        if (!rebindPinnedSection(mPinnedSection, 0, positionStart, itemCount, payload)) {
+            tearDownPinnedSections(0);
+            return;
+        }
+        for (int i = 0; i < mNestedSections.length; i++) {
+            PinnedSection section = mNestedSections[i];
+            if (section.holder != null && !rebindPinnedSection(section, i + 1, positionStart, itemCount, payload)) {
+                tearDownPinnedSections(i + 1);
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return false if the section can no longer be pinned
+     */
+    private boolean rebindPinnedSection(PinnedSection section, int level, int positionStart, int itemCount, Object payload) {
+        // a placeholder is replaced by the lookup on the next layout
+        if (section.pending) return true;
+        int position = section.position;
+        if (position < positionStart || position >= positionStart + itemCount) return true;
+
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        RecyclerView.ViewHolder holder = section.holder;
+        int viewType = mRecyclerView.getAdapter().getItemViewType(toListPosition(position));
+        if (!matchesViewType(holder, viewType) || !((Adapter) adapter).isPinnedSectionItem(position))
+            return false;
+        if (adapter instanceof MultiLevelAdapter && ((MultiLevelAdapter) adapter).getSectionLevel(position) != level)
+            return false;
+        if (section.attached) {
+            // the list rebinds its own child, possibly on another holder: stop following it
+            section.attached = false;
+            section.holder = obtainPinnedHolder(position, null);
+            invalidate();
+            return true;
+        }
+
+        bindPinnedHolder(holder, position, viewType, payload);
+        return true;
+    }
+
+    /**
+     * 在原ViewHolder上重新绑定并测量<br/>
+     * A partial bind cannot update the holder's position and item id, only {@code bindViewHolder} does. It is
+     * used only while the holder was last bound at the same position; after a shift the holder is bound fully,
+     * so {@code getLayoutPosition()} and {@code getItemId()} stay right for bind code and click handlers.
+     *
+     * @param position section adapter position
+     * @param payload  payload for a partial bind, can be null
+     */
+    private void bindPinnedHolder(RecyclerView.ViewHolder holder, int position, int viewType, Object payload) {
+        if (holder instanceof PinnedSectionLabelView.Holder) {
+            bindLabelHolder(holder, position);
+            invalidate();
+            return;
+        }
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        position = toListPosition(position);
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        if (payload == null || holder.getLayoutPosition() != position) {
+            adapter.bindViewHolder(holder, position);
+        } else {
+            mPayloads.add(payload);
+            //noinspection unchecked
+            adapter.onBindViewHolder(holder, position, mPayloads);
+            mPayloads.clear();
+        }
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionBound(System.nanoTime() - start);
+        measurePinnedSection(holder, viewType);
+        invalidate();
+    }
+
+    /**
+     * @return true if holder can show a section of viewType, label holders show any section
+     */
+    private static boolean matchesViewType(RecyclerView.ViewHolder holder, int viewType) {
+        return holder instanceof PinnedSectionLabelView.Holder || holder.getItemViewType() == viewType;
+    }
+
+    /**
+     * 数据集整体变化时保留悬挂的ViewHolder，在下一次布局后与拥有第一个可见行的section重新匹配<br/>
+     * Until the new layout it is not known which section owns the first visible row, so the pinned sections are
+     * neither looked up nor trusted here: the lookup after the layout finds the section, and only compares it
+     * with the pinned one.
+     */
+    private void onPinnedSectionDataSetChanged() {
+        if (mPinnedSection == null) return;
+        // a placeholder is simply replaced by the lookup
+        mPinnedSection.changed = !mPinnedSection.pending;
+        for (PinnedSection section : mNestedSections) {
+            if (section.holder != null) section.changed = true;
+        }
+        scheduleSectionCheck();
+    }
+
+    /**
+     * 数据集变化后，判断新查找到的section是否就是悬挂的section，是则保留ViewHolder并按需重新绑定
+     *
+     * @param position section adapter position of the section now owning the first visible row at this level
+     * @return false if it is another section, the pinned one has to be replaced
+     */
+    private boolean rematchPinnedSection(PinnedSection section, int position, int level) {
+        section.changed = false;
+        RecyclerView.Adapter adapter = mSectionAdapter;
+        // without stable ids only the position can tell, it is compared with a section known to be visible
+        if (adapter.hasStableIds() ? adapter.getItemId(position) != section.id : position != section.position)
+            return false;
+
+        RecyclerView.ViewHolder holder = section.holder;
+        int viewType = mRecyclerView.getAdapter().getItemViewType(toListPosition(position));
+        if (!matchesViewType(holder, viewType) || !((Adapter) adapter).isPinnedSectionItem(position))
+            return false;
+        if (adapter instanceof MultiLevelAdapter && ((MultiLevelAdapter) adapter).getSectionLevel(position) != level)
+            return false;
+        section.position = position;
+        // the list rebinds its own child, the holder is checked again on the next scroll check
+        if (section.attached) return true;
+
+        if (!(adapter instanceof SectionContentAdapter)
+                || ((SectionContentAdapter) adapter).isPinnedSectionContentChanged(holder, position))
+            bindPinnedHolder(holder, position, viewType, null);
+        return true;
+    }
+
+    private void onPinnedSectionRangeInserted(int positionStart, int itemCount) {
+        if (mPinnedSection == null) return;
+        shiftOnRangeInserted(mPinnedSection, positionStart, itemCount);
+        for (PinnedSection section : mNestedSections) {
+            shiftOnRangeInserted(section, positionStart, itemCount);
+        }
+    }
+
+    private void onPinnedSectionRangeRemoved(int positionStart, int itemCount) {
+        if (mPinnedSection == null) return;
+        if (!shiftOnRangeRemoved(mPinnedSection, positionStart, itemCount)) {
+            // the pinned section itself was removed
+            tearDownPinnedSections(0);
+            return;
+        }
+        for (int i = 0; i < mNestedSections.length; i++) {
+            if (mNestedSections[i].holder != null && !shiftOnRangeRemoved(mNestedSections[i], positionStart, itemCount)) {
+                tearDownPinnedSections(i + 1);
+                break;
+            }
+        }
+    }
+
+    private void onPinnedSectionRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (mPinnedSection == null) return;
+        if (itemCount != 1) {
+            // RecyclerView only dispatches single item moves
+            tearDownPinnedSections(0);
+            return;
+        }
+        shiftOnRangeMoved(mPinnedSection, fromPosition, toPosition);
+        for (PinnedSection section : mNestedSections) {
+            shiftOnRangeMoved(section, fromPosition, toPosition);
+        }
+    }
+
+    /**
+     * Removes the pinned sections of a level and deeper after a data change, they are rebuilt on the next scroll check
+     *
+     * @param level section level, 0 for the whole pinned stack
+     */
+    private void tearDownPinnedSections(int level) {
+        if (mMetrics != null)
+            mMetrics.onPinnedSectionTornDown(level);
+        if (level == 0)
+            removePinnedSection();
+        else
+            removeNestedSections(level - 1);
+    }
+
+    private static void shiftOnRangeInserted(PinnedSection section, int positionStart, int itemCount) {
+        if (positionStart <= section.position)
+            section.position += itemCount;
+    }
+
+    /**
+     * @return false if the section itself was removed
+     */
+    private static boolean shiftOnRangeRemoved(PinnedSection section, int positionStart, int itemCount) {
+        int position = section.position;
+        if (position >= positionStart + itemCount) {
+            section.position -= itemCount;
+        } else if (position >= positionStart) {
+            return false;
+        }
+        return true;
+    }
+
+    private static void shiftOnRangeMoved(PinnedSection section, int fromPosition, int toPosition) {
+        int position = section.position;
+        if (position == fromPosition) {
+            section.position = toPosition;
+        } else if (fromPosition < position && toPosition >= position) {
+            section.position--;
+        } else if (fromPosition > position && toPosition <= position) {
+            section.position++;
+        }
+    }
+
+    private final RecyclerView.AdapterDataObserver mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            schedulePendingSectionCheck();
+            clearVisibleViews();
+            dropPrefetchedSection();
+            onPinnedSectionDataSetChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            schedulePendingSectionCheck();
+            clearVisibleViews();
+            dropPrefetchedSection();
+            onPinnedSectionRangeChanged(positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            schedulePendingSectionCheck();
+            clearVisibleViews();
+            dropPrefetchedSection();
+            onPinnedSectionRangeChanged(positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            schedulePendingSectionCheck();
+            clearVisibleViews();
+            dropPrefetchedSection();
+            onPinnedSectionRangeInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            schedulePendingSectionCheck();
+            clearVisibleViews();
+            dropPrefetchedSection();
+            onPinnedSectionRangeRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            schedulePendingSectionCheck();
+            clearVisibleViews();
+            dropPrefetchedSection();
+            onPinnedSectionRangeMoved(fromPosition, toPosition, itemCount);
+        }
+    };
+
+    /**
+     * Wrapper class for pinned section view and its position in the list.
+     */
+    static class PinnedSection {
+        public RecyclerView.ViewHolder holder;
+        public int position;
+        public long id;
+
+        // holder is the list's own attached child, not a detached pinned holder
+        boolean attached;
+
+        // holder is a placeholder for a section that is not loaded yet, position is the first visible position
+        boolean pending;
+
+        // the data set changed since the holder was bound, matched again by the lookup after the next layout
+        boolean changed;
+
+        // position the pinned view is drawn at, in the list's coordinates
+        int left;
+        int top;
+
+        // push-off state of nested sections, the top level keeps its own in the list
+        int translate;
+        int distance;
+        int nextPosition = NO_POSITION;
+    }
+
+    /**
+     * 平滑滚动，目标停在悬挂视图之下，耗时有上限
+     */
+    static class PinnedSectionSmoothScroller extends LinearSmoothScroller {
+        private static final float MILLISECONDS_PER_INCH = 50f;
+        private static final int MAX_SCROLL_DURATION_MS = 400;
+
+        private final int mOffset;
+        private final boolean mReverse;
+
+        PinnedSectionSmoothScroller(Context context, int offset, boolean reverse) {
+            super(context);
+            mOffset = offset;
+            mReverse = reverse;
+        }
+
+        @Override
+        public PointF computeScrollVectorForPosition(int targetPosition) {
+            RecyclerView.LayoutManager layoutManager = getLayoutManager();
+            if (layoutManager instanceof LinearLayoutManager)
+                return ((LinearLayoutManager) layoutManager).computeScrollVectorForPosition(targetPosition);
+            if (layoutManager instanceof StaggeredGridLayoutManager)
+                return ((StaggeredGridLayoutManager) layoutManager).computeScrollVectorForPosition(targetPosition);
+            return null;
+        }
+
+        @Override
+        protected float calculateSpeedPerPixel(DisplayMetrics displayMetrics) {
+            return MILLISECONDS_PER_INCH / displayMetrics.densityDpi;
+        }
+
+        @Override
+        protected int calculateTimeForScrolling(int dx) {
+            return Math.min(super.calculateTimeForScrolling(dx), MAX_SCROLL_DURATION_MS);
+        }
+
+        @Override
+        protected int getVerticalSnapPreference() {
+            return mReverse ? SNAP_TO_END : SNAP_TO_START;
+        }
+
+        @Override
+        protected int getHorizontalSnapPreference() {
+            return mReverse ? SNAP_TO_END : SNAP_TO_START;
+        }
+
+        @Override
+        public int calculateDtToFit(int viewStart, int viewEnd, int boxStart, int boxEnd, int snapPreference) {
+            if (snapPreference == SNAP_TO_START)
+                return boxStart + mOffset - viewStart;
+            if (snapPreference == SNAP_TO_END)
+                return boxEnd - mOffset - viewEnd;
+            return super.calculateDtToFit(viewStart, viewEnd, boxStart, boxEnd, snapPreference);
+        }
+    }
+
+    /**
+     * Measure specs a pinned view of one view type was last laid out with.
+     */
+    static class PinnedMeasure {
+        int widthSpec;
+        int heightSpec;
+        int width;
+        int height;
+
+        /**
+         * @return true if the view is already laid out for these specs
+         */
+        boolean matches(View view, int ws, int hs) {
+            return widthSpec == ws && heightSpec == hs
+                    && view.getWidth() == width && view.getHeight() == height;
+        }
+    }
+
+    /**
+     * Detached pinned section holders grouped by view type.
+     */
+    static class PinnedViewHolderPool {
+        private final SparseArray<ArrayList<RecyclerView.ViewHolder>> mScrap = new SparseArray<>();
+        private int mMaxPerType = PinnedSectionRecyclerView.DEFAULT_PINNED_CACHE_SIZE;
+
+        int mHitCount;
+        int mMissCount;
+
+        RecyclerView.ViewHolder get(int viewType) {
+            ArrayList<RecyclerView.ViewHolder> scrap = mScrap.get(viewType);
+            if (scrap != null && !scrap.isEmpty()) {
+                mHitCount++;
+                return scrap.remove(scrap.size() - 1);
+            }
+            mMissCount++;
+            return null;
+        }
+
+        void put(RecyclerView.ViewHolder holder) {
+            int viewType = holder instanceof PinnedSectionLabelView.Holder
+                    ? PinnedSectionLabelView.VIEW_TYPE : holder.getItemViewType();
+            ArrayList<RecyclerView.ViewHolder> scrap = mScrap.get(viewType);
+            if (scrap == null) {
+                scrap = new ArrayList<>(mMaxPerType);
+                mScrap.put(viewType, scrap);
+            }
+            if (scrap.size() < mMaxPerType)
+                scrap.add(holder);
+        }
+
+        void setMaxPerType(int max) {
+            mMaxPerType = max;
+            for (int i = 0; i < mScrap.size(); i++) {
+                ArrayList<RecyclerView.ViewHolder> scrap = mScrap.valueAt(i);
+                while (scrap.size() > max) {
+                    scrap.remove(scrap.size() - 1);
+                }
+            }
+        }
+
+        void clear() {
+            mScrap.clear();
+        }
+    }
+}
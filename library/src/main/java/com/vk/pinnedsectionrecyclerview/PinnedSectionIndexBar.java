@@ -0,0 +1,346 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.util.DisplayMetrics;
+import android.view.MotionEvent;
+
+/**
+ * 按section快速跳转的索引条，显示在纵向列表的右侧<br/>
+ * Labels come from {@link SectionIndexAdapter#getSectionLabel(int)}. When there are more sections than labels fit
+ * along the bar, the labels are sampled, but every point of the bar still maps to its own section. Touching or
+ * dragging jumps straight to the section under the finger with one layout pass, so a drag over a list of
+ * millions of rows costs the same as over a short one.
+ */
+public class PinnedSectionIndexBar extends RecyclerView.ItemDecoration
+        implements RecyclerView.OnItemTouchListener, PinnedSectionRecyclerView.OverlayTouchArea {
+
+    private static final int DEFAULT_WIDTH_DP = 24;
+    private static final int DEFAULT_TEXT_SIZE_SP = 11;
+    private static final int DEFAULT_BUBBLE_SIZE_DP = 64;
+    private static final int DEFAULT_TEXT_COLOR = 0xff757575;
+    private static final int DEFAULT_SELECTED_TEXT_COLOR = 0xff3f51b5;
+    private static final int DEFAULT_BUBBLE_COLOR = 0xff3f51b5;
+    private static final int TRACK_COLOR = 0x20000000;
+
+    private RecyclerView mRecyclerView;
+    private PinnedSectionDecoration mDecoration;
+
+    private int mWidth;
+    private int mBubbleSize;
+    private float mTextSize;
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mBubblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mBubbleTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mTrackPaint = new Paint();
+    private final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+    private final RectF mBubbleRect = new RectF();
+    private int mTextColor = DEFAULT_TEXT_COLOR;
+    private int mSelectedTextColor = DEFAULT_SELECTED_TEXT_COLOR;
+
+    // labels drawn along the bar, sampled from the sections and read again when the data or the bar changes
+    private RecyclerView.Adapter mObservedAdapter;
+    private CharSequence[] mLabels = new CharSequence[0];
+    private int mLabelCount;
+    private int mLabelsSectionCount = -1;
+    private int mLabelsHeight = -1;
+    private boolean mLabelsValid;
+
+    private boolean mDragging;
+    private int mDragSection = -1;
+    private float mDragY;
+    private CharSequence mDragLabel;
+
+    public PinnedSectionIndexBar() {
+        mTrackPaint.setColor(TRACK_COLOR);
+        mBubblePaint.setColor(DEFAULT_BUBBLE_COLOR);
+        mBubbleTextPaint.setColor(Color.WHITE);
+        mTextPaint.setTextAlign(Paint.Align.CENTER);
+        mBubbleTextPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * 绑定到列表，传null解除绑定
+     *
+     * @param recyclerView list to draw the bar on, null to remove it from the current one
+     * @param decoration   decoration attached to the list, its sections are indexed and its pinned views get no
+     *                     touches on the bar; null only together with recyclerView
+     */
+    public void attachToRecyclerView(@Nullable RecyclerView recyclerView, @Nullable PinnedSectionDecoration decoration) {
+        if ((recyclerView == null) != (decoration == null))
+            throw new IllegalArgumentException("recyclerView and decoration must both be set or both be null");
+        if (mRecyclerView == recyclerView && mDecoration == decoration) return;
+        if (mRecyclerView != null) {
+            mRecyclerView.removeItemDecoration(this);
+            mRecyclerView.removeOnItemTouchListener(this);
+            if (mDecoration.getOverlayTouchArea() == this) mDecoration.setOverlayTouchArea(null);
+            observeAdapter(null);
+            mDragging = false;
+        }
+        mRecyclerView = recyclerView;
+        mDecoration = decoration;
+        if (recyclerView != null) {
+            DisplayMetrics metrics = recyclerView.getResources().getDisplayMetrics();
+            if (mWidth == 0) mWidth = (int) (DEFAULT_WIDTH_DP * metrics.density);
+            if (mBubbleSize == 0) mBubbleSize = (int) (DEFAULT_BUBBLE_SIZE_DP * metrics.density);
+            if (mTextSize == 0) setTextSize(DEFAULT_TEXT_SIZE_SP * metrics.scaledDensity);
+            recyclerView.addItemDecoration(this);
+            recyclerView.addOnItemTouchListener(this);
+            decoration.setOverlayTouchArea(this);
+        }
+    }
+
+    /**
+     * @param width bar width in pixels
+     */
+    public void setWidth(int width) {
+        mWidth = width;
+        invalidate();
+    }
+
+    /**
+     * @param size label text size in pixels
+     */
+    public void setTextSize(float size) {
+        mTextSize = size;
+        mTextPaint.setTextSize(size);
+        mBubbleTextPaint.setTextSize(size * 2.5f);
+        mLabelsValid = false;
+        invalidate();
+    }
+
+    public void setTextColor(int color) {
+        mTextColor = color;
+        invalidate();
+    }
+
+    /**
+     * @param color color of the label of the pinned section
+     */
+    public void setSelectedTextColor(int color) {
+        mSelectedTextColor = color;
+        invalidate();
+    }
+
+    /**
+     * @param color background of the label shown next to the finger while dragging
+     */
+    public void setBubbleColor(int color) {
+        mBubblePaint.setColor(color);
+        invalidate();
+    }
+
+    private void invalidate() {
+        if (mRecyclerView != null) mRecyclerView.invalidate();
+    }
+
+    /**
+     * @return section index of the adapter, null if the bar cannot be shown
+     */
+    private SectionIndex getSectionIndex() {
+        if (mRecyclerView == null || !mDecoration.isPinnedVertical()) return null;
+        RecyclerView.Adapter adapter = mDecoration.getSectionAdapter();
+        if (adapter != mObservedAdapter) observeAdapter(adapter);
+        if (!(adapter instanceof SectionIndexAdapter)) return null;
+        SectionIndex index = ((SectionIndexAdapter) adapter).getSectionIndex();
+        return index.size() > 0 ? index : null;
+    }
+
+    private void observeAdapter(RecyclerView.Adapter adapter) {
+        if (mObservedAdapter != null) mObservedAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
+        mObservedAdapter = adapter;
+        if (adapter != null) adapter.registerAdapterDataObserver(mAdapterDataObserver);
+        mLabelsValid = false;
+    }
+
+    private int getBarTop() {
+        return mRecyclerView.getPaddingTop();
+    }
+
+    private int getBarHeight() {
+        return mRecyclerView.getHeight() - mRecyclerView.getPaddingTop() - mRecyclerView.getPaddingBottom();
+    }
+
+    /**
+     * @return true if (x, y) is on the bar
+     */
+    @Override
+    public boolean isTouched(float x, float y) {
+        if (getSectionIndex() == null) return false;
+        int top = getBarTop();
+        return x >= mRecyclerView.getWidth() - mWidth && y >= top && y < top + getBarHeight();
+    }
+
+    /**
+     * @return index of the section shown at y along the bar
+     */
+    private int findSectionAt(float y, int sectionCount) {
+        int height = getBarHeight();
+        if (height <= 0) return 0;
+        int section = (int) ((long) (y - getBarTop()) * sectionCount / height);
+        section = Math.max(0, Math.min(sectionCount - 1, section));
+        return mDecoration.isPinnedReverse() ? sectionCount - 1 - section : section;
+    }
+
+    /**
+     * 采样可以放下的section标签
+     */
+    private void ensureLabels(SectionIndex index) {
+        int sectionCount = index.size();
+        int height = getBarHeight();
+        if (mLabelsValid && sectionCount == mLabelsSectionCount && height == mLabelsHeight) return;
+        mLabelsValid = true;
+        mLabelsSectionCount = sectionCount;
+        mLabelsHeight = height;
+
+        mTextPaint.getFontMetricsInt(mFontMetrics);
+        int labelHeight = Math.max(1, (mFontMetrics.bottom - mFontMetrics.top) * 3 / 2);
+        mLabelCount = Math.max(0, Math.min(sectionCount, height / labelHeight));
+        if (mLabels.length < mLabelCount) mLabels = new CharSequence[mLabelCount];
+        SectionIndexAdapter adapter = (SectionIndexAdapter) mObservedAdapter;
+        for (int i = 0; i < mLabelCount; i++) {
+            int section = (int) ((long) i * sectionCount / mLabelCount);
+            if (mDecoration.isPinnedReverse()) section = sectionCount - 1 - section;
+            mLabels[i] = adapter.getSectionLabel(index.getSectionPosition(section));
+        }
+    }
+
+    @Override
+    public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        SectionIndex index = getSectionIndex();
+        if (index == null) return;
+        ensureLabels(index);
+
+        int right = parent.getWidth();
+        int left = right - mWidth;
+        int top = getBarTop();
+        int height = getBarHeight();
+        if (mDragging) c.drawRect(left, top, right, top + height, mTrackPaint);
+
+        // slot of the pinned section is highlighted
+        int sectionCount = index.size();
+        int pinnedPosition = mDecoration.toSectionPosition(mDecoration.getPinnedSectionPosition());
+        int selectedSlot = -1;
+        if (pinnedPosition >= 0 && mLabelCount > 0) {
+            int section = index.getSectionIndex(pinnedPosition);
+            if (mDecoration.isPinnedReverse()) section = sectionCount - 1 - section;
+            selectedSlot = (int) ((long) section * mLabelCount / sectionCount);
+        }
+
+        mTextPaint.getFontMetricsInt(mFontMetrics);
+        float x = left + mWidth / 2f;
+        float baseline = -(mFontMetrics.ascent + mFontMetrics.descent) / 2f;
+        for (int i = 0; i < mLabelCount; i++) {
+            CharSequence label = mLabels[i];
+            if (label == null) continue;
+            mTextPaint.setColor(i == selectedSlot ? mSelectedTextColor : mTextColor);
+            float y = top + (i + 0.5f) * height / mLabelCount + baseline;
+            c.drawText(label, 0, label.length(), x, y, mTextPaint);
+        }
+
+        if (mDragging && mDragLabel != null) {
+            float cy = Math.max(top + mBubbleSize / 2f, Math.min(top + height - mBubbleSize / 2f, mDragY));
+            float cx = left - mBubbleSize;
+            mBubbleRect.set(cx - mBubbleSize / 2f, cy - mBubbleSize / 2f, cx + mBubbleSize / 2f, cy + mBubbleSize / 2f);
+            c.drawRoundRect(mBubbleRect, mBubbleSize / 4f, mBubbleSize / 4f, mBubblePaint);
+            mBubbleTextPaint.getFontMetricsInt(mFontMetrics);
+            c.drawText(mDragLabel, 0, mDragLabel.length(), cx,
+                    cy - (mFontMetrics.ascent + mFontMetrics.descent) / 2f, mBubbleTextPaint);
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+        // RecyclerView may drop the active listener after DOWN, the rest of the drag can arrive here as well
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                endDrag();
+                if (!isTouched(e.getX(), e.getY())) return false;
+                mDragging = true;
+                mDragSection = -1;
+                rv.stopScroll();
+                onDrag(e.getY());
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (mDragging) onDrag(e.getY());
+                return mDragging;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                boolean dragging = mDragging;
+                endDrag();
+                return dragging;
+        }
+        return mDragging;
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                onDrag(e.getY());
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                break;
+        }
+    }
+
+    private void endDrag() {
+        if (!mDragging) return;
+        mDragging = false;
+        mDragLabel = null;
+        invalidate();
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    /**
+     * 跳转到手指所在的section，section不变时不再跳转
+     */
+    private void onDrag(float y) {
+        mDragY = y;
+        invalidate();
+        SectionIndex index = getSectionIndex();
+        if (index == null) return;
+        int section = findSectionAt(y, index.size());
+        if (section == mDragSection) return;
+        mDragSection = section;
+        int position = index.getSectionPosition(section);
+        mDragLabel = ((SectionIndexAdapter) mObservedAdapter).getSectionLabel(position);
+        mDecoration.jumpToPosition(mDecoration.toListPosition(position), 0);
+    }
+
+    private final RecyclerView.AdapterDataObserver mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            mLabelsValid = false;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            mLabelsValid = false;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mLabelsValid = false;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mLabelsValid = false;
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            mLabelsValid = false;
+        }
+    };
+}
@@ -0,0 +1,124 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.support.v4.util.LruCache;
+import android.support.v7.widget.RecyclerView;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.View;
+
+/**
+ * 只绘制背景色和一行文字的悬挂视图，不经过adapter创建、inflate和measure<br/>
+ * Used for adapters implementing {@link PinnedSectionRecyclerView.LabelSectionAdapter}. The text layouts are
+ * built once per label and width and shared by every label view of a decoration through its {@link Style}.
+ * Only used on the UI thread.
+ */
+final class PinnedSectionLabelView extends View {
+
+    /**
+     * Key of label holders in the pinned holder cache, not a view type of any adapter
+     */
+    static final int VIEW_TYPE = Integer.MIN_VALUE;
+
+    static final int DEFAULT_TEXT_SIZE_SP = 20;
+    static final int DEFAULT_PADDING_DP = 10;
+
+    private final Style mStyle;
+    private final Paint mBackgroundPaint = new Paint();
+    private StaticLayout mLayout;
+
+    PinnedSectionLabelView(Context context, Style style) {
+        super(context);
+        mStyle = style;
+    }
+
+    /**
+     * @param label        text of the section, null for none
+     * @param color        background color
+     * @param maxLineWidth width available to the text, it is ellipsized beyond it
+     */
+    void bind(CharSequence label, int color, int maxLineWidth) {
+        mLayout = mStyle.getLayout(label != null ? label : "", Math.max(maxLineWidth, 0));
+        mBackgroundPaint.setColor(color);
+        invalidate();
+    }
+
+    /**
+     * @return width of the text and its padding
+     */
+    int getLabelWidth() {
+        return (int) Math.ceil(mLayout.getLineWidth(0)) + 2 * mStyle.padding;
+    }
+
+    /**
+     * @return {@link Style#size} if set, height of the text and its padding otherwise
+     */
+    int getLabelHeight() {
+        return mStyle.size > 0 ? mStyle.size : mLayout.getHeight() + 2 * mStyle.padding;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (Color.alpha(mBackgroundPaint.getColor()) != 0)
+            canvas.drawRect(0, 0, getWidth(), getHeight(), mBackgroundPaint);
+        if (mLayout == null) return;
+        int saveCount = canvas.save();
+        // a view fitted to the text is narrower than the layout: the line is drawn at its own start
+        float dx = getWidth() >= mLayout.getWidth() + 2 * mStyle.padding
+                ? mStyle.padding : mStyle.padding - mLayout.getLineLeft(0);
+        canvas.translate(dx, (getHeight() - mLayout.getHeight()) / 2f);
+        mLayout.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Text style of the label views of one decoration, with the text layouts they share
+     */
+    static final class Style {
+        private static final int LAYOUT_CACHE_SIZE = 32;
+
+        final TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        int padding;
+
+        // size along the scroll axis, 0 to fit the text
+        int size;
+
+        private final LruCache<CharSequence, StaticLayout> mLayouts = new LruCache<>(LAYOUT_CACHE_SIZE);
+        private int mLayoutWidth = -1;
+
+        /**
+         * @return layout of a single ellipsized line, cached by label
+         */
+        StaticLayout getLayout(CharSequence label, int width) {
+            if (width != mLayoutWidth) {
+                mLayouts.evictAll();
+                mLayoutWidth = width;
+            }
+            StaticLayout layout = mLayouts.get(label);
+            if (layout == null) {
+                CharSequence text = TextUtils.ellipsize(label, textPaint, width, TextUtils.TruncateAt.END);
+                layout = new StaticLayout(text, textPaint, width, Layout.Alignment.ALIGN_NORMAL, 1, 0, false);
+                mLayouts.put(label, layout);
+            }
+            return layout;
+        }
+
+        /**
+         * Drops the cached layouts after the paint changed
+         */
+        void clear() {
+            mLayouts.evictAll();
+        }
+    }
+
+    static final class Holder extends RecyclerView.ViewHolder {
+        Holder(PinnedSectionLabelView itemView) {
+            super(itemView);
+        }
+    }
+}
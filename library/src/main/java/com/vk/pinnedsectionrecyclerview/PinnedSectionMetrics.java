@@ -0,0 +1,179 @@
+package com.vk.pinnedsectionrecyclerview;
+
+/**
+ * 悬挂视图统计，记录创建/复用次数、绑定/测量/绘制耗时及数据变化导致的移除次数<br/>
+ * Set with {@link PinnedSectionRecyclerView#setPinnedSectionMetrics(PinnedSectionMetrics)}. The callbacks aggregate
+ * events into counters and {@link Histogram}s; override them to forward events elsewhere as well.
+ * Everything runs on the main thread and nothing allocates, so the values can be sampled every frame.
+ */
+public class PinnedSectionMetrics {
+
+    private final Histogram mBindTime = new Histogram();
+    private final Histogram mMeasureTime = new Histogram();
+    private final Histogram mDrawTime = new Histogram();
+
+    private long mCreateCount;
+    private long mReuseCount;
+    private long mTeardownCount;
+
+    /**
+     * A pinned holder was obtained for a section
+     *
+     * @param reused true if it came from the pinned holder cache, false if the adapter created it
+     */
+    public void onPinnedSectionObtained(boolean reused) {
+        if (reused)
+            mReuseCount++;
+        else
+            mCreateCount++;
+    }
+
+    /**
+     * @param nanos time spent in the adapter binding the pinned holder
+     */
+    public void onPinnedSectionBound(long nanos) {
+        mBindTime.record(nanos);
+    }
+
+    /**
+     * @param nanos time spent measuring and laying out the pinned view, including cache hits that skip both
+     */
+    public void onPinnedSectionMeasured(long nanos) {
+        mMeasureTime.record(nanos);
+    }
+
+    /**
+     * @param nanos time spent drawing the pinned overlay in one frame
+     */
+    public void onPinnedSectionDrawn(long nanos) {
+        mDrawTime.record(nanos);
+    }
+
+    /**
+     * An adapter data change removed pinned sections that had to be rebuilt
+     *
+     * @param level section level that was removed along with the deeper ones, 0 for the whole pinned stack
+     */
+    public void onPinnedSectionTornDown(int level) {
+        mTeardownCount++;
+    }
+
+    public long getCreateCount() {
+        return mCreateCount;
+    }
+
+    public long getReuseCount() {
+        return mReuseCount;
+    }
+
+    public long getTeardownCount() {
+        return mTeardownCount;
+    }
+
+    public Histogram getBindTime() {
+        return mBindTime;
+    }
+
+    public Histogram getMeasureTime() {
+        return mMeasureTime;
+    }
+
+    public Histogram getDrawTime() {
+        return mDrawTime;
+    }
+
+    public void reset() {
+        mCreateCount = 0;
+        mReuseCount = 0;
+        mTeardownCount = 0;
+        mBindTime.reset();
+        mMeasureTime.reset();
+        mDrawTime.reset();
+    }
+
+    /**
+     * 以2的幂为桶的直方图<br/>
+     * Bucket 0 counts zero, bucket {@code i} counts values in {@code [2^(i-1), 2^i)}.
+     * Negative values are counted as zero.
+     */
+    public static final class Histogram {
+        public static final int BUCKET_COUNT = 64;
+
+        private final long[] mBuckets = new long[BUCKET_COUNT];
+        private long mCount;
+        private long mSum;
+        private long mMax;
+
+        public void record(long value) {
+            if (value < 0) value = 0;
+            mBuckets[bucketOf(value)]++;
+            mCount++;
+            mSum += value;
+            if (value > mMax) mMax = value;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getSum() {
+            return mSum;
+        }
+
+        public long getMax() {
+            return mMax;
+        }
+
+        public long getMean() {
+            return mCount == 0 ? 0 : mSum / mCount;
+        }
+
+        /**
+         * @param bucket bucket index in {@code [0, BUCKET_COUNT)}
+         * @return number of values recorded in the bucket
+         */
+        public long getBucketCount(int bucket) {
+            return mBuckets[bucket];
+        }
+
+        /**
+         * @param bucket bucket index in {@code [0, BUCKET_COUNT)}
+         * @return largest value counted in the bucket
+         */
+        public static long getBucketUpperBound(int bucket) {
+            if (bucket == 0) return 0;
+            if (bucket == BUCKET_COUNT - 1) return Long.MAX_VALUE;
+            return (1L << bucket) - 1;
+        }
+
+        /**
+         * @param percentile percentile in {@code [0, 100]}
+         * @return upper bound of the bucket holding the percentile, capped at the max recorded value
+         */
+        public long getPercentile(double percentile) {
+            if (mCount == 0) return 0;
+            long rank = (long) Math.ceil(mCount * percentile / 100);
+            if (rank < 1) rank = 1;
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets[i];
+                if (seen >= rank)
+                    return Math.min(getBucketUpperBound(i), mMax);
+            }
+            return mMax;
+        }
+
+        public void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                mBuckets[i] = 0;
+            }
+            mCount = 0;
+            mSum = 0;
+            mMax = 0;
+        }
+
+        static int bucketOf(long value) {
+            return Math.min(64 - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+        }
+    }
+}
@@ -1,362 +1,348 @@
 package com.vk.pinnedsectionrecyclerview;
 
 import android.content.Context;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Rect;
-import android.graphics.drawable.GradientDrawable;
+import android.content.res.TypedArray;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.Nullable;
-import android.support.v7.widget.LinearLayoutManager;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.os.ParcelableCompat;
+import android.support.v4.os.ParcelableCompatCreatorCallbacks;
+import android.support.v4.view.AbsSavedState;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.util.Log;
-import android.view.GestureDetector;
-import android.view.HapticFeedbackConstants;
-import android.view.MotionEvent;
-import android.view.SoundEffectConstants;
 import android.view.View;
-import android.view.ViewGroup;
-import android.view.accessibility.AccessibilityEvent;
-import android.widget.Toast;
 
 /**
  * Created by VK on 2017/2/14.<br/>
- * -
+ * RecyclerView with a {@link PinnedSectionDecoration} attached, configured from XML and saving the pinned section
+ * with its own state. To pin sections in another RecyclerView subclass, attach the decoration to it instead.
  */
 
 public class PinnedSectionRecyclerView extends RecyclerView {
     public static final String TAG = "PinnedSectRecyclerView";
 
     /**
-     * shadow instance with a pinned view, can be null.
+     * Logging switch. Always off in release builds; in debug builds enable it with
+     * {@code adb shell setprop log.tag.PinnedSectRecyclerView DEBUG}.
      */
-    PinnedSection mPinnedSection;
+    static final boolean DEBUG = BuildConfig.DEBUG && Log.isLoggable(TAG, Log.DEBUG);
 
     /**
-     * Shadow for being recycled, can be null.
+     * Default number of detached pinned holders kept per view type.
      */
-    PinnedSection mRecycleSection;
-
-    // fields used for drawing shadow under a pinned section
-    private GradientDrawable mShadowDrawable;
-    private int mSectionsDistanceY;
-    private int mShadowHeight;
+    public static final int DEFAULT_PINNED_CACHE_SIZE = 2;
 
     /**
-     * Pinned view Y-translation. We use it to stick pinned view to the next section.
+     * Pins the sections: draws the pinned views over the children and handles touches on them.
      */
-    int mTranslateY;
-
-    // fields used for handling touch events
-    private final Rect mTouchRect = new Rect();
-    private View mTouchTarget;
-
-    //用于检测touch事件落点在pinnedview的手势情况
-    private GestureDetector mGestureDetector;
-
-    private OnPinnedSectionTouchListener mOnPinnedSectionTouchListener;
+    PinnedSectionDecoration mPinnedSectionDecoration;
 
     public PinnedSectionRecyclerView(Context context) {
         super(context);
-        initView();
+        initView(null);
     }
 
     public PinnedSectionRecyclerView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
-        initView();
+        initView(attrs);
     }
 
     public PinnedSectionRecyclerView(Context context, @Nullable AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
-        initView();
+        initView(attrs);
     }
 
-    Toast mToast;
-
-    private void showToast(String text) {
-        boolean ret = true;
-        if (ret)
-            return;
-        if (mToast == null) {
-            mToast = Toast.makeText(getContext().getApplicationContext(), text, Toast.LENGTH_SHORT);
-        } else {
-            mToast.setText(text);
+    private void initView(@Nullable AttributeSet attrs) {
+        mPinnedSectionDecoration = new PinnedSectionDecoration(getContext());
+        if (attrs != null) {
+            TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.PinnedSectionRecyclerView);
+            mPinnedSectionDecoration.setShadowColor(
+                    a.getColor(R.styleable.PinnedSectionRecyclerView_pinnedShadowColor, PinnedSectionShadow.DEFAULT_COLOR));
+            int shadowHeight = a.getDimensionPixelSize(R.styleable.PinnedSectionRecyclerView_pinnedShadowHeight, -1);
+            if (shadowHeight >= 0) mPinnedSectionDecoration.setShadowHeight(shadowHeight);
+            mPinnedSectionDecoration.setShadowVisible(
+                    a.getBoolean(R.styleable.PinnedSectionRecyclerView_pinnedShadowVisible, true));
+            a.recycle();
         }
-
-        mToast.show();
-
-    }
-
-    private void initView() {
-        addOnScrollListener(mOnScrollListener);
-        initShadow(true);
-        mGestureDetector = new GestureDetector(getContext().getApplicationContext(), new GestureDetector.OnGestureListener() {
-            @Override
-            public boolean onDown(MotionEvent e) {
-                return true;
-            }
-
-            @Override
-            public void onShowPress(MotionEvent e) {
-                showToast("onShowPress");
-            }
-
-            @Override
-            public boolean onSingleTapUp(MotionEvent e) {
-                playSoundEffect(SoundEffectConstants.CLICK);
-                if (mPinnedSection.holder.itemView != null) {
-                    mPinnedSection.holder.itemView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_CLICKED);
-                }
-                if (mOnPinnedSectionTouchListener != null)
-                    mOnPinnedSectionTouchListener.onClick(mPinnedSection.holder.itemView, mPinnedSection.position);
-                return true;
-            }
-
-            @Override
-            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-                return true;
-            }
-
-            @Override
-            public void onLongPress(MotionEvent e) {
-                if (mPinnedSection.holder.itemView != null) {
-                    mPinnedSection.holder.itemView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_LONG_CLICKED);
-                    performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
-                }
-                if (mOnPinnedSectionTouchListener != null)
-                    mOnPinnedSectionTouchListener.onLongClick(mPinnedSection.holder.itemView, mPinnedSection.position);
-            }
-
-            @Override
-            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-                return true;
-            }
-        });
+        mPinnedSectionDecoration.attachToRecyclerView(this);
     }
 
     //-- public API methods
 
     public void setShadowVisible(boolean visible) {
-        initShadow(visible);
-        if (mPinnedSection != null) {
-            View v = mPinnedSection.holder.itemView;
-            invalidate(v.getLeft(), v.getTop(), v.getRight(), v.getBottom() + mShadowHeight);
-        }
+        mPinnedSectionDecoration.setShadowVisible(visible);
     }
 
-    //-- pinned section drawing methods
-
-    public void initShadow(boolean visible) {
-        if (visible) {
-            if (mShadowDrawable == null) {
-                mShadowDrawable = new GradientDrawable(GradientDrawable.Orientation.TOP_BOTTOM,
-                        new int[]{Color.parseColor("#ffa0a0a0"), Color.parseColor("#50a0a0a0"), Color.parseColor("#00a0a0a0")});
-                mShadowHeight = (int) (8 * getResources().getDisplayMetrics().density);
-            }
-        } else {
-            if (mShadowDrawable != null) {
-                mShadowDrawable = null;
-                mShadowHeight = 0;
-            }
-        }
+    /**
+     * 设置每种viewType缓存的悬挂ViewHolder数量
+     *
+     * @param size max holders kept per view type, 0 disables the cache
+     */
+    public void setPinnedSectionCacheSize(int size) {
+        mPinnedSectionDecoration.setPinnedSectionCacheSize(size);
     }
 
-    RecyclerView.OnScrollListener mOnScrollListener = new RecyclerView.OnScrollListener() {
-        @Override
-        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
-            super.onScrollStateChanged(recyclerView, newState);
-        }
-
-        @Override
-        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
-            super.onScrolled(recyclerView, dx, dy);
-            checkOnScrolled();
-        }
-    };
-
-    @Override
-    protected void dispatchDraw(Canvas canvas) {
-        super.dispatchDraw(canvas);
-
-        if (mPinnedSection != null) {
-            canvas.save();
-
-            View view = mPinnedSection.holder.itemView;
-
-            int pLeft = getPaddingLeft();
-
-            int pTop = getPaddingTop();
+    /**
+     * @return how many pinned sections were bound on a cached holder
+     */
+    public int getPinnedSectionCacheHits() {
+        return mPinnedSectionDecoration.getPinnedSectionCacheHits();
+    }
 
-            int clipHeight = view.getHeight() + (mShadowDrawable == null ? 0 : Math.min(mShadowHeight, mSectionsDistanceY));
-            canvas.clipRect(0, 0, view.getWidth(), clipHeight);
+    /**
+     * @return how many pinned sections needed a new holder from the adapter
+     */
+    public int getPinnedSectionCacheMisses() {
+        return mPinnedSectionDecoration.getPinnedSectionCacheMisses();
+    }
 
-            canvas.translate(pLeft, pTop + mTranslateY);
-            drawChild(canvas, view, getDrawingTime());
+    /**
+     * @return adapter position of the pinned section, {@link #NO_POSITION} when nothing is pinned
+     */
+    public int getPinnedSectionPosition() {
+        return mPinnedSectionDecoration.getPinnedSectionPosition();
+    }
 
-            //绘制阴影
-            if (mShadowDrawable != null && mSectionsDistanceY > 0) {
-                mShadowDrawable.setBounds(view.getLeft(), view.getBottom(), view.getRight(), view.getBottom() + mShadowHeight);
-                mShadowDrawable.draw(canvas);
-            }
-            canvas.restore();
-        }
+    /**
+     * 滚动到第sectionIndex个section，section本身显示在悬挂的边上
+     *
+     * @see PinnedSectionDecoration#scrollToSection(int, boolean)
+     */
+    public void scrollToSection(int sectionIndex, boolean smooth) {
+        mPinnedSectionDecoration.scrollToSection(sectionIndex, smooth);
+    }
 
+    /**
+     * 滚动到position，使其紧贴在悬挂视图之下而不被遮挡
+     *
+     * @param position adapter position to show right below the pinned sections
+     */
+    public void scrollToPositionBelowHeader(int position) {
+        mPinnedSectionDecoration.scrollToPositionBelowHeader(position);
     }
 
-    private void createPinnedSection(int position) {
+    /**
+     * 平滑滚动到position，使其紧贴在悬挂视图之下。距离较远时先跳到目标附近，只播放最后一段动画
+     *
+     * @param position adapter position to show right below the pinned sections
+     */
+    public void smoothScrollToPositionBelowHeader(int position) {
+        mPinnedSectionDecoration.smoothScrollToPositionBelowHeader(position);
+    }
 
-        removePinnedSection();
-        Log.d(TAG, "createPinnedSection: " + position);
-        // try to recycle shadow
-        PinnedSection pinnedShadow = mRecycleSection;
-        mRecycleSection = null;
-        mTranslateY = 0;
-        mSectionsDistanceY = 0;
-        if (mRecycleSection == null) {
-            pinnedShadow = new PinnedSection();
-            pinnedShadow.position = position;
-        }
+    void jumpToPosition(int position, int offset) {
+        mPinnedSectionDecoration.jumpToPosition(position, offset);
+    }
 
-        RecyclerView.Adapter adapter = getAdapter();
-        ViewHolder viewHolder = adapter.createViewHolder(this, adapter.getItemViewType(position));
-        adapter.bindViewHolder(viewHolder, position);
+    boolean isPinnedVertical() {
+        return mPinnedSectionDecoration.isPinnedVertical();
+    }
 
-        // read layout parameters
-        ViewGroup.LayoutParams layoutParams = viewHolder.itemView.getLayoutParams();
-        if (layoutParams == null) {
-            layoutParams = generateDefaultLayoutParams();
-            viewHolder.itemView.setLayoutParams(layoutParams);
-        }
+    boolean isPinnedReverse() {
+        return mPinnedSectionDecoration.isPinnedReverse();
+    }
 
-        int heightMode = MeasureSpec.getMode(layoutParams.height);
-        int heightSize = MeasureSpec.getSize(layoutParams.height);
+    /**
+     * 设置查找第一个可见位置的策略，用于自定义LayoutManager
+     *
+     * @param strategy strategy, null restores {@link DefaultFirstVisiblePositionStrategy}
+     */
+    public void setFirstVisiblePositionStrategy(@Nullable FirstVisiblePositionStrategy strategy) {
+        mPinnedSectionDecoration.setFirstVisiblePositionStrategy(strategy);
+    }
 
-        if (heightMode == MeasureSpec.UNSPECIFIED) heightMode = MeasureSpec.EXACTLY;
+    /**
+     * 设置悬挂视图统计，用于上报创建次数与耗时
+     *
+     * @param metrics metrics receiving pinned section events, null to stop collecting
+     */
+    public void setPinnedSectionMetrics(@Nullable PinnedSectionMetrics metrics) {
+        mPinnedSectionDecoration.setPinnedSectionMetrics(metrics);
+    }
 
-        int maxHeight = getHeight() - getPaddingTop() - getPaddingBottom();
-        if (heightSize > maxHeight) heightSize = maxHeight;
+    @Nullable
+    public PinnedSectionMetrics getPinnedSectionMetrics() {
+        return mPinnedSectionDecoration.getPinnedSectionMetrics();
+    }
 
-        // measure & layout
-        int ws = MeasureSpec.makeMeasureSpec(getWidth() - getPaddingLeft() - getPaddingRight(), MeasureSpec.EXACTLY);
-        int hs = MeasureSpec.makeMeasureSpec(heightSize, heightMode);
-        viewHolder.itemView.measure(ws, hs);
-        viewHolder.itemView.layout(0, 0, viewHolder.itemView.getMeasuredWidth(), viewHolder.itemView.getMeasuredHeight());
+    /**
+     * @see PinnedSectionDecoration#setPinnedSectionPrefetchEnabled(boolean)
+     */
+    public void setPinnedSectionPrefetchEnabled(boolean enabled) {
+        mPinnedSectionDecoration.setPinnedSectionPrefetchEnabled(enabled);
+    }
 
-        pinnedShadow.holder = viewHolder;
+    public boolean isPinnedSectionPrefetchEnabled() {
+        return mPinnedSectionDecoration.isPinnedSectionPrefetchEnabled();
+    }
 
-        mPinnedSection = pinnedShadow;
+    /**
+     * @see PinnedSectionDecoration#setPinnedSectionAttachedViewEnabled(boolean)
+     */
+    public void setPinnedSectionAttachedViewEnabled(boolean enabled) {
+        mPinnedSectionDecoration.setPinnedSectionAttachedViewEnabled(enabled);
+    }
 
-        updatePinnedSectionLocation();
+    public boolean isPinnedSectionAttachedViewEnabled() {
+        return mPinnedSectionDecoration.isPinnedSectionAttachedViewEnabled();
+    }
 
+    public void initShadow(boolean visible) {
+        mPinnedSectionDecoration.initShadow(visible);
     }
 
     /**
-     * 更新悬挂视图Section
-     *
-     * @param firstVisibleItemPosition
-     * @param firstCompletelyVisibleItemPosition
+     * @param color shadow color next to the pinned view, fades out to transparent
      */
-    private void updatePinnedSection(int firstVisibleItemPosition, int firstCompletelyVisibleItemPosition) {
-        //找出目标悬挂section位置
-        int pinnedSectionPosition = findPinnedSection(firstVisibleItemPosition);
-
-        if (mPinnedSection != null && mPinnedSection.position == firstCompletelyVisibleItemPosition) {
-            //若目标悬挂section位置相等于第一个完全显示的item位置,移除悬挂
-            Log.d(TAG, "updatePinnedSection: removePinnedSection");
-            removePinnedSection();
-        }
+    public void setShadowColor(int color) {
+        mPinnedSectionDecoration.setShadowColor(color);
+    }
 
-        if (mPinnedSection != null && mPinnedSection.position == pinnedSectionPosition) {
-            //若当前绘制的悬挂位置已经等于目标悬挂位置，更新具体位置
-            Log.d(TAG, "updatePinnedSection: update position " + pinnedSectionPosition);
+    /**
+     * @param height shadow height in pixels
+     */
+    public void setShadowHeight(int height) {
+        mPinnedSectionDecoration.setShadowHeight(height);
+    }
 
-            updatePinnedSectionLocation();
-        } else {
-            createPinnedSection(pinnedSectionPosition);
-        }
+    public void setOnPinnedSectionTouchListener(OnPinnedSectionTouchListener onPinnedSectionTouchListener) {
+        mPinnedSectionDecoration.setOnPinnedSectionTouchListener(onPinnedSectionTouchListener);
     }
 
     /**
-     * 更新悬挂视图的垂直位置
+     * @return decoration that pins the sections of this list, e.g. to attach a {@link PinnedSectionIndexBar} to
      */
-    private void updatePinnedSectionLocation() {
+    public PinnedSectionDecoration getPinnedSectionDecoration() {
+        return mPinnedSectionDecoration;
+    }
 
-        int nextSectionPosition = findNextSectionByPinnedSection();
-        LinearLayoutManager layoutManager = (LinearLayoutManager) getLayoutManager();
-        View nexSectionView = layoutManager.findViewByPosition(nextSectionPosition);
-        if (nexSectionView == null) {
-            Log.d(TAG, "updatePinnedSectionLocation: nextSectionPosition:" + nextSectionPosition);
-            int firstCompletelyVisibleItemPosition = layoutManager.findFirstCompletelyVisibleItemPosition();
-            int firstVisibleItemPosition = layoutManager.findFirstVisibleItemPosition();
-            //在看不到下一个section时，保证绘制阴影高度为正常高度
-            mSectionsDistanceY = firstVisibleItemPosition == firstCompletelyVisibleItemPosition ? 0 : mShadowHeight;
-            return;
-        }
+    /**
+     * @see PinnedSectionDecoration#setLabelTextSize(float)
+     */
+    public void setLabelTextSize(float size) {
+        mPinnedSectionDecoration.setLabelTextSize(size);
+    }
 
-        int cBottom = mPinnedSection.holder.itemView.getBottom();
-        int nTop = nexSectionView.getTop();
+    public void setLabelTextColor(int color) {
+        mPinnedSectionDecoration.setLabelTextColor(color);
+    }
 
-        mSectionsDistanceY = nTop - cBottom;
-        Log.d(TAG, "updatePinnedSectionLocation: distance=" + mSectionsDistanceY + " ,nTop=" + nTop + " ,cBottom=" + cBottom);
-        if (mSectionsDistanceY < 0)
-            mTranslateY = mSectionsDistanceY;
-        else
-            mTranslateY = 0;
+    public void setLabelPadding(int padding) {
+        mPinnedSectionDecoration.setLabelPadding(padding);
+    }
 
+    public void setLabelSize(int size) {
+        mPinnedSectionDecoration.setLabelSize(size);
     }
 
     /**
-     * 移除pinnedSection并回收复用
+     * @see PinnedSectionDecoration#setSectionTransition(SectionTransition)
      */
-    private void removePinnedSection() {
-        Log.d(TAG, "removePinnedSection: ");
-        mSectionsDistanceY = 0;
-        if (mPinnedSection != null) {
-            mRecycleSection = mPinnedSection;
-            mPinnedSection = null;
-        }
+    public void setSectionTransition(@Nullable SectionTransition transition) {
+        mPinnedSectionDecoration.setSectionTransition(transition);
+    }
+
+    @Nullable
+    public SectionTransition getSectionTransition() {
+        return mPinnedSectionDecoration.getSectionTransition();
     }
 
     /**
-     * 找出悬挂的Section
+     * Set before {@link #setAdapter(RecyclerView.Adapter)} when the adapter wraps the {@link Adapter}.
      *
-     * @param position
-     * @return
+     * @see PinnedSectionDecoration#setPositionMapping(PositionMapping)
      */
-    private int findPinnedSection(int position) {
-        Adapter adapter = (Adapter) getAdapter();
-        int sectionPosition = adapter.findSectionPosition(position);
-        return sectionPosition;
+    public void setPositionMapping(@Nullable PositionMapping mapping) {
+        mPinnedSectionDecoration.setPositionMapping(mapping);
     }
 
-    private int findNextSectionByPinnedSection() {
-        Adapter adapter = (Adapter) getAdapter();
-        int sectionPosition = adapter.findNextSectionPosition(mPinnedSection.position);
-        return sectionPosition;
+    @Nullable
+    public PositionMapping getPositionMapping() {
+        return mPinnedSectionDecoration.getPositionMapping();
     }
 
     /**
      * 发生滚动时检查
      */
-    private void checkOnScrolled() {
-        LinearLayoutManager layoutManager = (LinearLayoutManager) getLayoutManager();
-        int firstCompletelyVisibleItemPosition = layoutManager.findFirstCompletelyVisibleItemPosition();
-        int firstVisibleItemPosition = layoutManager.findFirstVisibleItemPosition();
+    @VisibleForTesting
+    void checkOnScrolled() {
+        mPinnedSectionDecoration.checkOnScrolled();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        PinnedSectionSavedState state = new PinnedSectionSavedState(super.onSaveInstanceState());
+        mPinnedSectionDecoration.onSaveInstanceState(state);
+        return state;
+    }
 
-        RecyclerView.Adapter adapter = getAdapter();
-        if (adapter instanceof Adapter) {
-            updatePinnedSection(firstVisibleItemPosition, firstCompletelyVisibleItemPosition);
-        } else
-            throw new IllegalArgumentException("Does your adapter implement PinnedSectRecyclerView.Adapter?");
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof PinnedSectionSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        PinnedSectionSavedState savedState = (PinnedSectionSavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        mPinnedSectionDecoration.onRestoreInstanceState(savedState);
+    }
+
+    @Override
+    public void setAdapter(RecyclerView.Adapter adapter) {
+        // assert adapter in debug mode
+        // a wrapping adapter is checked by the decoration through the position mapping
+        if (adapter != null && getPositionMapping() == null) {
+            if (!(adapter instanceof Adapter))
+                throw new IllegalArgumentException("Does your adapter implement PinnedSectionListAdapter?");
+            if (adapter.getItemCount() < 2)
+                throw new IllegalArgumentException("Does your adapter handle at least two types" +
+                        " of views in getViewTypeCount() method: items and sections?");
+        }
+        super.setAdapter(adapter);
+        mPinnedSectionDecoration.syncAdapter();
     }
 
     /**
-     * Wrapper class for pinned section view and its position in the list.
+     * Pinned section saved with the list's own state.
      */
-    static class PinnedSection {
-        public ViewHolder holder;
-        public int position;
-        public long id;
+    public static class PinnedSectionSavedState extends AbsSavedState {
+        int pinnedPosition = NO_POSITION;
+        long pinnedId = NO_ID;
+        boolean shadowVisible;
+
+        PinnedSectionSavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        PinnedSectionSavedState(Parcel in, ClassLoader loader) {
+            super(in, loader);
+            pinnedPosition = in.readInt();
+            pinnedId = in.readLong();
+            shadowVisible = in.readInt() != 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeInt(pinnedPosition);
+            dest.writeLong(pinnedId);
+            dest.writeInt(shadowVisible ? 1 : 0);
+        }
+
+        public static final Creator<PinnedSectionSavedState> CREATOR = ParcelableCompat.newCreator(
+                new ParcelableCompatCreatorCallbacks<PinnedSectionSavedState>() {
+                    @Override
+                    public PinnedSectionSavedState createFromParcel(Parcel in, ClassLoader loader) {
+                        return new PinnedSectionSavedState(in, loader);
+                    }
+
+                    @Override
+                    public PinnedSectionSavedState[] newArray(int size) {
+                        return new PinnedSectionSavedState[size];
+                    }
+                });
     }
 
     public interface Adapter {
@@ -366,127 +352,292 @@ public class PinnedSectionRecyclerView extends RecyclerView {
          * 找出position所属的section位置
          *
          * @param position
-         * @return
+         * @return section position, -1 if position is not in a section,
+         * {@link PagedSectionAdapter#SECTION_PENDING} if it is not loaded yet
+         * @see SectionIndexAdapter
          */
         int findSectionPosition(int position);
 
+        /**
+         * 找出position之后的下一个section位置
+         *
+         * @param position
+         * @return next section position, -1 if there is none, {@link PagedSectionAdapter#SECTION_PENDING} if it is
+         * not loaded yet
+         */
         int findNextSectionPosition(int position);
 
     }
 
-    public void setOnPinnedSectionTouchListener(OnPinnedSectionTouchListener onPinnedSectionTouchListener) {
-        mOnPinnedSectionTouchListener = onPinnedSectionTouchListener;
-    }
+    /**
+     * {@link Adapter} with nested sections, e.g. category → subcategory → items.
+     * Sections of every level are pinned and stacked, level 0 at the edge. Each level is pushed off by the
+     * next section of the same or an outer level.<br/>
+     * {@link #isPinnedSectionItem(int)} is true for sections of every level, and
+     * {@link #findSectionPosition(int)}/{@link #findNextSectionPosition(int)} answer for level 0.
+     */
+    public interface MultiLevelAdapter extends Adapter {
+        /**
+         * @return number of section levels, at least 1
+         */
+        int getSectionLevelCount();
 
-    public interface OnPinnedSectionTouchListener {
-        void onClick(View pinnedItemView, int position);
+        /**
+         * @param position position of a section item
+         * @return level of the section, 0 is the outermost
+         */
+        int getSectionLevel(int position);
 
-        void onLongClick(View pinnedItemView, int position);
-    }
+        /**
+         * 找出position所属的指定级别section位置
+         *
+         * @return position of the section of this level containing position, -1 if there is none
+         */
+        int findSectionPosition(int position, int level);
 
-    private void clearTouchTarget() {
-        mTouchTarget = null;
+        /**
+         * 找出position之后下一个级别不大于level的section位置
+         *
+         * @return position of the first section after position whose level is at most level, -1 if there is none
+         */
+        int findNextSectionPosition(int position, int level);
     }
 
-    private boolean isPinnedViewTouched(View view, float x, float y) {
-        view.getHitRect(mTouchRect);
+    /**
+     * 分页加载的{@link Adapter}：未加载的行所属的section稍后才能确定<br/>
+     * While {@link #findSectionPosition(int)} returns {@link #SECTION_PENDING} for the first visible position,
+     * a placeholder header is pinned instead. Notify the adapter's change when the page arrives: the real header
+     * replaces the placeholder on the next layout, the list's own layout is not affected.
+     */
+    public interface PagedSectionAdapter extends Adapter {
+        /**
+         * Section position that is not known until its page is loaded
+         */
+        int SECTION_PENDING = -2;
 
-        // by taping top or bottom padding, the list performs on click on a border item.
-        // we don't add top padding here to keep behavior consistent.
-        mTouchRect.top += mTranslateY;
+        /**
+         * @param position first visible position, whose section is pending
+         * @return view type of the placeholder, a section view type so it measures like the real header
+         */
+        int getPendingSectionViewType(int position);
 
-        mTouchRect.bottom += mTranslateY + getPaddingTop();
-        mTouchRect.left += getPaddingLeft();
-        mTouchRect.right -= getPaddingRight();
-        return mTouchRect.contains((int) x, (int) y);
+        /**
+         * Binds the placeholder, e.g. clears it or shows a label known ahead of the rows.
+         * The holder may have shown a real section before.
+         *
+         * @param holder   holder of {@link #getPendingSectionViewType(int)}, not attached to the list
+         * @param position first visible position, whose section is pending
+         */
+        void onBindPendingSection(ViewHolder holder, int position);
     }
 
-    @Override
-    public boolean dispatchTouchEvent(MotionEvent ev) {
+    /**
+     * 只有文字和背景色的section：悬挂时直接在canvas上绘制文字，不创建、inflate或measure adapter的视图<br/>
+     * Optional interface for an {@link Adapter}. The pinned header is drawn with a cached text layout in the
+     * style set by {@link PinnedSectionDecoration#setLabelTextSize(float)} and the related setters; it is not
+     * clickable children-wise and the list's own section views are never pinned in its place.
+     */
+    public interface LabelSectionAdapter {
+        /**
+         * @param position section adapter position of the section
+         * @return text drawn on the pinned header, Strings are cached by value
+         */
+        CharSequence getPinnedSectionLabel(int position);
 
-        final float x = ev.getX();
-        final float y = ev.getY();
-        final int action = ev.getAction();
+        /**
+         * @param position section adapter position of the section
+         * @return background color of the pinned header
+         */
+        int getPinnedSectionColor(int position);
+    }
 
-        if (action == MotionEvent.ACTION_DOWN
-                && mTouchTarget == null
-                && mPinnedSection != null
-                && isPinnedViewTouched(mPinnedSection.holder.itemView, x, y)) {
+    /**
+     * Optional interface for an {@link Adapter} whose pinned sections keep the same layout after rebinding.
+     * The pinned view is then not measured again when a cached holder of the same type is reused, even if a
+     * bind requested a layout; it is only laid out again at its old size.<br/>
+     * The promise covers every view inside the section, not only its root: a {@code wrap_content} child whose
+     * size follows the data, such as a TextView's text or an image, would keep its old bounds.
+     */
+    public interface SizeStableAdapter {
+        /**
+         * @param viewType view type of the pinned section
+         * @return true if binding never changes the size or position of a view of this type or of any view in it
+         */
+        boolean hasStablePinnedSectionSize(int viewType);
+    }
 
-            // user touched pinned view
-            mTouchTarget = mPinnedSection.holder.itemView;
-        }
+    /**
+     * Optional interface for an {@link Adapter} that can hand the state of an attached section view, such as
+     * loaded images or prepared text layouts, to the detached pinned holder instead of binding it again.
+     *
+     * @see #setPinnedSectionAttachedViewEnabled(boolean)
+     */
+    public interface SectionStateAdapter {
+        /**
+         * Called before the attached section view is recycled, while it is still bound.
+         *
+         * @param source   attached holder of the section, about to be recycled
+         * @param target   detached holder of the same view type
+         * @param position adapter position of the section
+         * @return true if target now shows the section, false to bind it normally
+         */
+        boolean copyPinnedSectionState(ViewHolder source, ViewHolder target, int position);
+    }
 
-        if (mTouchTarget != null) {
-            boolean ret = mGestureDetector.onTouchEvent(ev);
-            Log.d(TAG, "dispatchTouchEvent: ret=" + ret);
-            switch (action) {
-                case MotionEvent.ACTION_CANCEL:
-                case MotionEvent.ACTION_UP:
-                    clearTouchTarget();
-//                    MotionEvent event = MotionEvent.obtain(ev);
-//                    event.setAction(MotionEvent.ACTION_CANCEL);
-                    super.dispatchTouchEvent(ev);
-//                    event.recycle();
-                    break;
-            }
-            return true;
-        }
-        return super.dispatchTouchEvent(ev);
+    /**
+     * Optional interface for an {@link Adapter} that knows whether a section's content changed.
+     * After {@code notifyDataSetChanged()} the section owning the first visible row is looked up once the list is
+     * laid out again. If it is the pinned section, by stable id or at the same position without stable ids, it
+     * keeps its holder and is rebound only if this returns true.
+     * Without this interface it is always rebound in place.
+     */
+    public interface SectionContentAdapter {
+        /**
+         * @param holder   pinned holder, still bound to the section's previous data
+         * @param position new adapter position of the section
+         * @return true if the holder has to be bound again
+         */
+        boolean isPinnedSectionContentChanged(ViewHolder holder, int position);
     }
 
-    @Override
-    public void setAdapter(RecyclerView.Adapter adapter) {
-        // assert adapter in debug mode
-        if (adapter != null) {
-            if (!(adapter instanceof Adapter))
-                throw new IllegalArgumentException("Does your adapter implement PinnedSectionListAdapter?");
-            if (adapter.getItemCount() < 2)
-                throw new IllegalArgumentException("Does your adapter handle at least two types" +
-                        " of views in getViewTypeCount() method: items and sections?");
-        }
+    /**
+     * Finds the first visible adapter positions for a layout manager. Called on every scroll frame,
+     * implementations should not allocate.
+     */
+    public interface FirstVisiblePositionStrategy {
+        /**
+         * @return first (partially) visible adapter position, {@link RecyclerView#NO_POSITION} if there is none
+         */
+        int findFirstVisiblePosition(RecyclerView recyclerView);
 
-        // unregister observer at old adapter and register on new one
-        RecyclerView.Adapter oldAdapter = getAdapter();
-        if (oldAdapter != null) oldAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
-        if (adapter != null) adapter.registerAdapterDataObserver(mAdapterDataObserver);
+        /**
+         * @return first completely visible adapter position, {@link RecyclerView#NO_POSITION} if there is none
+         */
+        int findFirstCompletelyVisiblePosition(RecyclerView recyclerView);
+    }
+
+    /**
+     * 包装adapter（下拉刷新头、加载更多、header/footer）与内层section adapter之间的位置转换<br/>
+     * Rows added by the wrapper are never pinned. See {@link HeaderPositionMapping} for the usual case.
+     */
+    public interface PositionMapping {
+        /**
+         * @param adapter adapter set on the list
+         * @return wrapped adapter implementing {@link Adapter}, adapter itself if it is not a wrapper
+         */
+        RecyclerView.Adapter getSectionAdapter(RecyclerView.Adapter adapter);
 
-        // destroy pinned shadow, if new adapter is not same as old one
-        if (oldAdapter != adapter) removePinnedSection();
+        /**
+         * @param position adapter position in the list
+         * @return position in the section adapter, {@link RecyclerView#NO_POSITION} for a row added by the wrapper
+         */
+        int toSectionPosition(int position);
 
-        super.setAdapter(adapter);
+        /**
+         * @param sectionPosition position in the section adapter
+         * @return adapter position in the list
+         */
+        int toListPosition(int sectionPosition);
     }
 
-    private final AdapterDataObserver mAdapterDataObserver = new AdapterDataObserver() {
-        @Override
-        public void onChanged() {
-            removePinnedSection();
+    /**
+     * 包装adapter在内层adapter前加了固定数量的行（如下拉刷新头和header），之后的行（如加载更多footer）不参与悬挂<br/>
+     * E.g. an XRecyclerView with pull-to-refresh and one added header has a header count of 2.
+     */
+    public static class HeaderPositionMapping implements PositionMapping {
+        private final RecyclerView.Adapter mSectionAdapter;
+        private int mHeaderCount;
+
+        /**
+         * @param sectionAdapter adapter implementing {@link Adapter} that the list's adapter wraps
+         * @param headerCount    number of rows the wrapper puts before it
+         */
+        public HeaderPositionMapping(RecyclerView.Adapter sectionAdapter, int headerCount) {
+            if (!(sectionAdapter instanceof Adapter))
+                throw new IllegalArgumentException("Does your adapter implement PinnedSectRecyclerView.Adapter?");
+            mSectionAdapter = sectionAdapter;
+            mHeaderCount = headerCount;
         }
 
-        @Override
-        public void onItemRangeChanged(int positionStart, int itemCount) {
-            removePinnedSection();
+        /**
+         * Call with a list's layout pass pending, e.g. before notifying the wrapper of the added header
+         */
+        public void setHeaderCount(int headerCount) {
+            mHeaderCount = headerCount;
         }
 
-        @Override
-        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
-            removePinnedSection();
+        public int getHeaderCount() {
+            return mHeaderCount;
         }
 
         @Override
-        public void onItemRangeInserted(int positionStart, int itemCount) {
-            removePinnedSection();
+        public RecyclerView.Adapter getSectionAdapter(RecyclerView.Adapter adapter) {
+            return mSectionAdapter;
         }
 
         @Override
-        public void onItemRangeRemoved(int positionStart, int itemCount) {
-            removePinnedSection();
+        public int toSectionPosition(int position) {
+            int sectionPosition = position - mHeaderCount;
+            return sectionPosition >= 0 && sectionPosition < mSectionAdapter.getItemCount()
+                    ? sectionPosition : NO_POSITION;
         }
 
         @Override
-        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            removePinnedSection();
+        public int toListPosition(int sectionPosition) {
+            return sectionPosition + mHeaderCount;
         }
-    };
+    }
 
+    /**
+     * 悬挂视图切换效果，由与下一个section的距离驱动<br/>
+     * Implementations only set view properties such as alpha, scale and translation. They must not bind, measure or
+     * lay the view out. The pinned view is not attached to the window and has no RenderNode of its own: the list
+     * redraws it on the UI thread every frame with its transform applied to the canvas, and an alpha below 1 draws
+     * it through an offscreen layer.
+     * While a transition is set the pinned view rests at the pinned edge instead of being pushed off.
+     *
+     * @see PinnedSectionTransitions
+     */
+    public interface SectionTransition {
+        /**
+         * Called on every location update of the pinned view, e.g. every scroll frame
+         *
+         * @param pinnedView detached top level pinned view
+         * @param distance   distance from the far side of the pinned view to the next section, negative while the
+         *                   next section pushes it off, down to -size
+         * @param size       size of the pinned view along the scroll axis
+         * @param vertical   true if the list scrolls vertically
+         * @param reverse    true if the view is pinned to the end edge (reverse layout or RTL)
+         */
+        void onSectionTransition(View pinnedView, int distance, int size, boolean vertical, boolean reverse);
+
+        /**
+         * Restores the properties set by {@link #onSectionTransition}, the view is about to be reused
+         */
+        void onSectionTransitionEnd(View pinnedView);
+
+        /**
+         * @return true to cut the pinned view where the next section starts, as when it is pushed off;
+         * false to draw all of it over the next section
+         */
+        boolean isClippedByNextSection();
+    }
+
+    public interface OnPinnedSectionTouchListener {
+        void onClick(View pinnedItemView, int position);
+
+        void onLongClick(View pinnedItemView, int position);
+    }
+
+    /**
+     * Area drawn over the pinned views that handles its own touches, such as {@link PinnedSectionIndexBar}.
+     *
+     * @see PinnedSectionDecoration#setOverlayTouchArea(OverlayTouchArea)
+     */
+    public interface OverlayTouchArea {
+        /**
+         * @return true if (x, y), in the list's coordinates, is on this area
+         */
+        boolean isTouched(float x, float y);
+    }
 }
@@ -0,0 +1,74 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.support.v4.util.LruCache;
+
+/**
+ * Gradient shadow drawn next to the pinned view.<br/>
+ * Instances are shared by every {@link PinnedSectionRecyclerView} with the same color, height and
+ * direction, and the gradient shader is built once per instance. Only the last few are kept, so colors and
+ * heights left behind by theme or density changes do not pile up. Drawing only fills a rect in the
+ * shadow's own coordinates, callers translate the canvas to where the shadow starts.
+ * Only used on the UI thread.
+ */
+final class PinnedSectionShadow {
+
+    static final int DEFAULT_COLOR = 0xffa0a0a0;
+    static final int DEFAULT_HEIGHT_DP = 8;
+
+    // enough for the lists on screen, each holds its own instance while it uses it
+    private static final int CACHE_SIZE = 4;
+
+    private static final LruCache<Long, PinnedSectionShadow> sShadows = new LruCache<>(CACHE_SIZE);
+
+    final int height;
+    private final boolean mVertical;
+    private final Paint mPaint = new Paint();
+
+    /**
+     * @param color    shadow color next to the pinned view, fades out to transparent
+     * @param height   shadow height in pixels, along the scroll axis
+     * @param vertical scroll axis of the list
+     * @param reverse  true if the view is pinned to the end edge, the shadow then fades towards the start
+     * @return shared shadow
+     */
+    static PinnedSectionShadow obtain(int color, int height, boolean vertical, boolean reverse) {
+        long key = ((long) color << 32) | ((long) height << 2) | (vertical ? 2 : 0) | (reverse ? 1 : 0);
+        PinnedSectionShadow shadow = sShadows.get(key);
+        if (shadow == null) {
+            shadow = new PinnedSectionShadow(color, height, vertical, reverse);
+            sShadows.put(key, shadow);
+        }
+        return shadow;
+    }
+
+    private PinnedSectionShadow(int color, int height, boolean vertical, boolean reverse) {
+        this.height = height;
+        mVertical = vertical;
+
+        int alpha = Color.alpha(color);
+        int rgb = color & 0x00ffffff;
+        int[] colors = {alpha << 24 | rgb, (alpha * 0x50 / 0xff) << 24 | rgb, rgb};
+        float start = reverse ? height : 0;
+        float end = reverse ? 0 : height;
+        mPaint.setShader(vertical
+                ? new LinearGradient(0, start, 0, end, colors, null, Shader.TileMode.CLAMP)
+                : new LinearGradient(start, 0, end, 0, colors, null, Shader.TileMode.CLAMP));
+    }
+
+    /**
+     * 在已平移到阴影起点的canvas上绘制
+     *
+     * @param length shadow length across the scroll axis, usually the pinned view's width or height
+     */
+    void draw(Canvas canvas, int length) {
+        if (mVertical)
+            canvas.drawRect(0, 0, length, height, mPaint);
+        else
+            canvas.drawRect(0, 0, height, length, mPaint);
+    }
+}
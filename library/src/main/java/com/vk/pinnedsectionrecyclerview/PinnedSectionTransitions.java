@@ -0,0 +1,129 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.view.View;
+
+import com.vk.pinnedsectionrecyclerview.PinnedSectionRecyclerView.SectionTransition;
+
+/**
+ * 常用的悬挂视图切换效果<br/>
+ * Set with {@link PinnedSectionRecyclerView#setSectionTransition(SectionTransition)}. Each effect sets view
+ * properties from the push-off progress only, without allocating or laying the view out.
+ */
+public final class PinnedSectionTransitions {
+
+    private PinnedSectionTransitions() {
+    }
+
+    /**
+     * @return 0 while the next section does not touch the pinned view, 1 when it covers the whole size
+     */
+    static float getProgress(int distance, int size) {
+        if (distance >= 0 || size <= 0) return 0;
+        return Math.min(1f, -distance / (float) size);
+    }
+
+    /**
+     * Restores the properties the effects set, so a pooled view is drawn plainly by any transition or none.
+     * The pivot goes back to the center, where the framework keeps it by default; {@code View#resetPivot()}
+     * would let it follow later size changes again but needs API 28.
+     */
+    static void reset(View pinnedView) {
+        pinnedView.setPivotX(pinnedView.getWidth() / 2f);
+        pinnedView.setPivotY(pinnedView.getHeight() / 2f);
+        pinnedView.setAlpha(1);
+        pinnedView.setScaleX(1);
+        pinnedView.setScaleY(1);
+        pinnedView.setTranslationX(0);
+        pinnedView.setTranslationY(0);
+    }
+
+    /**
+     * 淡出：悬挂视图停在边上逐渐透明，下一个section从其下方出现
+     */
+    public static class Crossfade implements SectionTransition {
+        @Override
+        public void onSectionTransition(View pinnedView, int distance, int size, boolean vertical, boolean reverse) {
+            pinnedView.setAlpha(1 - getProgress(distance, size));
+        }
+
+        @Override
+        public void onSectionTransitionEnd(View pinnedView) {
+            reset(pinnedView);
+        }
+
+        @Override
+        public boolean isClippedByNextSection() {
+            return false;
+        }
+    }
+
+    /**
+     * 缩放：悬挂视图向固定边收缩，始终容纳在下一个section之前的空间内
+     */
+    public static class Scale implements SectionTransition {
+        @Override
+        public void onSectionTransition(View pinnedView, int distance, int size, boolean vertical, boolean reverse) {
+            if (vertical) {
+                pinnedView.setPivotX(pinnedView.getWidth() / 2f);
+                pinnedView.setPivotY(reverse ? pinnedView.getHeight() : 0);
+            } else {
+                pinnedView.setPivotX(reverse ? pinnedView.getWidth() : 0);
+                pinnedView.setPivotY(pinnedView.getHeight() / 2f);
+            }
+            float scale = 1 - getProgress(distance, size);
+            pinnedView.setScaleX(scale);
+            pinnedView.setScaleY(scale);
+        }
+
+        @Override
+        public void onSectionTransitionEnd(View pinnedView) {
+            reset(pinnedView);
+        }
+
+        @Override
+        public boolean isClippedByNextSection() {
+            return false;
+        }
+    }
+
+    /**
+     * 视差：悬挂视图以较慢的速度移出，被下一个section覆盖
+     */
+    public static class Parallax implements SectionTransition {
+        public static final float DEFAULT_FACTOR = 0.5f;
+
+        private final float mFactor;
+
+        public Parallax() {
+            this(DEFAULT_FACTOR);
+        }
+
+        /**
+         * @param factor speed of the pinned view relative to the push, in {@code [0, 1]}
+         */
+        public Parallax(float factor) {
+            mFactor = Math.max(0, Math.min(1, factor));
+        }
+
+        @Override
+        public void onSectionTransition(View pinnedView, int distance, int size, boolean vertical, boolean reverse) {
+            float translation = Math.max(distance, -size) * mFactor;
+            if (distance >= 0) translation = 0;
+            if (reverse) translation = -translation;
+            if (vertical)
+                pinnedView.setTranslationY(translation);
+            else
+                pinnedView.setTranslationX(translation);
+        }
+
+        @Override
+        public void onSectionTransitionEnd(View pinnedView) {
+            reset(pinnedView);
+        }
+
+        @Override
+        public boolean isClippedByNextSection() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import java.util.Arrays;
+
+/**
+ * Sorted positions of the section items of an adapter.<br/>
+ * Section lookups are binary searches, range events update the index in place.
+ */
+public class SectionIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] mPositions = EMPTY;
+    private int mSize;
+
+    /**
+     * 重新扫描所有item建立索引
+     *
+     * @param adapter   adapter telling which items are sections
+     * @param itemCount adapter item count
+     */
+    public void build(PinnedSectionRecyclerView.Adapter adapter, int itemCount) {
+        mSize = 0;
+        for (int i = 0; i < itemCount; i++) {
+            if (adapter.isPinnedSectionItem(i))
+                insertAt(mSize, i);
+        }
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * @return number of sections
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @param sectionIndex index of the section, from 0 to {@link #size()} - 1
+     * @return adapter position of the section item
+     */
+    public int getSectionPosition(int sectionIndex) {
+        if (sectionIndex < 0 || sectionIndex >= mSize)
+            throw new IndexOutOfBoundsException("section " + sectionIndex + " of " + mSize);
+        return mPositions[sectionIndex];
+    }
+
+    /**
+     * 找出position所属section的序号
+     *
+     * @param position adapter position
+     * @return index of the section containing position, -1 if position is before the first section
+     */
+    public int getSectionIndex(int position) {
+        int i = Arrays.binarySearch(mPositions, 0, mSize, position);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * 找出position所属的section位置
+     *
+     * @param position adapter position
+     * @return position of the section containing position, -1 if there is none
+     */
+    public int findSectionPosition(int position) {
+        int i = getSectionIndex(position);
+        return i < 0 ? -1 : mPositions[i];
+    }
+
+    /**
+     * 找出position之后的下一个section位置
+     *
+     * @param position adapter position
+     * @return position of the first section after position, -1 if there is none
+     */
+    public int findNextSectionPosition(int position) {
+        int i = Arrays.binarySearch(mPositions, 0, mSize, position);
+        int next = i >= 0 ? i + 1 : -i - 1;
+        return next < mSize ? mPositions[next] : -1;
+    }
+
+    public void onItemRangeChanged(PinnedSectionRecyclerView.Adapter adapter, int positionStart, int itemCount) {
+        int from = lowerBound(positionStart);
+        int to = lowerBound(positionStart + itemCount);
+        removeRange(from, to);
+        for (int p = positionStart; p < positionStart + itemCount; p++) {
+            if (adapter.isPinnedSectionItem(p))
+                insertAt(from++, p);
+        }
+    }
+
+    public void onItemRangeInserted(PinnedSectionRecyclerView.Adapter adapter, int positionStart, int itemCount) {
+        int from = lowerBound(positionStart);
+        for (int i = from; i < mSize; i++) {
+            mPositions[i] += itemCount;
+        }
+        for (int p = positionStart; p < positionStart + itemCount; p++) {
+            if (adapter.isPinnedSectionItem(p))
+                insertAt(from++, p);
+        }
+    }
+
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        int from = lowerBound(positionStart);
+        removeRange(from, lowerBound(positionStart + itemCount));
+        for (int i = from; i < mSize; i++) {
+            mPositions[i] -= itemCount;
+        }
+    }
+
+    public void onItemRangeMoved(PinnedSectionRecyclerView.Adapter adapter, int fromPosition, int toPosition, int itemCount) {
+        onItemRangeRemoved(fromPosition, itemCount);
+        onItemRangeInserted(adapter, toPosition, itemCount);
+    }
+
+    /**
+     * @return index of the first section at or after position
+     */
+    private int lowerBound(int position) {
+        int i = Arrays.binarySearch(mPositions, 0, mSize, position);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private void insertAt(int index, int position) {
+        if (mSize == mPositions.length) {
+            mPositions = Arrays.copyOf(mPositions, Math.max(16, mSize * 2));
+        }
+        System.arraycopy(mPositions, index, mPositions, index + 1, mSize - index);
+        mPositions[index] = position;
+        mSize++;
+    }
+
+    private void removeRange(int from, int to) {
+        System.arraycopy(mPositions, to, mPositions, from, mSize - to);
+        mSize -= to - from;
+    }
+}
@@ -0,0 +1,85 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Base adapter answering section lookups from a {@link SectionIndex}.<br/>
+ * Subclasses only implement {@link #isPinnedSectionItem(int)}; the index is built on the first lookup
+ * and kept up to date from the adapter's own notify calls.
+ */
+public abstract class SectionIndexAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH>
+        implements PinnedSectionRecyclerView.Adapter {
+
+    private final SectionIndex mSectionIndex = new SectionIndex();
+    private boolean mSectionIndexValid;
+    private boolean mObserving;
+
+    /**
+     * @return section index of the current data, built if needed
+     */
+    public SectionIndex getSectionIndex() {
+        if (!mObserving) {
+            // registered lazily so that subclasses can still call setHasStableIds()
+            registerAdapterDataObserver(mSectionIndexObserver);
+            mObserving = true;
+        }
+        if (!mSectionIndexValid) {
+            mSectionIndex.build(this, getItemCount());
+            mSectionIndexValid = true;
+        }
+        return mSectionIndex;
+    }
+
+    /**
+     * 索引条上显示的section标签
+     *
+     * @param position adapter position of a section item
+     * @return label shown by {@link PinnedSectionIndexBar}, null to leave the section unlabeled
+     */
+    @Nullable
+    public CharSequence getSectionLabel(int position) {
+        return null;
+    }
+
+    @Override
+    public int findSectionPosition(int position) {
+        return getSectionIndex().findSectionPosition(position);
+    }
+
+    @Override
+    public int findNextSectionPosition(int position) {
+        return getSectionIndex().findNextSectionPosition(position);
+    }
+
+    private final RecyclerView.AdapterDataObserver mSectionIndexObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            mSectionIndexValid = false;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            if (mSectionIndexValid)
+                mSectionIndex.onItemRangeChanged(SectionIndexAdapter.this, positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (mSectionIndexValid)
+                mSectionIndex.onItemRangeInserted(SectionIndexAdapter.this, positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (mSectionIndexValid)
+                mSectionIndex.onItemRangeRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (mSectionIndexValid)
+                mSectionIndex.onItemRangeMoved(SectionIndexAdapter.this, fromPosition, toPosition, itemCount);
+        }
+    };
+}
@@ -0,0 +1,75 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link PinnedSectionMetrics} and its histogram.
+ */
+public class PinnedSectionMetricsTest {
+
+    @Test
+    public void histogram_bucketsByPowerOfTwo() throws Exception {
+        assertEquals(0, PinnedSectionMetrics.Histogram.bucketOf(0));
+        assertEquals(1, PinnedSectionMetrics.Histogram.bucketOf(1));
+        assertEquals(2, PinnedSectionMetrics.Histogram.bucketOf(2));
+        assertEquals(2, PinnedSectionMetrics.Histogram.bucketOf(3));
+        assertEquals(11, PinnedSectionMetrics.Histogram.bucketOf(1024));
+        assertEquals(PinnedSectionMetrics.Histogram.BUCKET_COUNT - 1,
+                PinnedSectionMetrics.Histogram.bucketOf(Long.MAX_VALUE));
+
+        for (int i = 1; i < PinnedSectionMetrics.Histogram.BUCKET_COUNT - 1; i++) {
+            long upper = PinnedSectionMetrics.Histogram.getBucketUpperBound(i);
+            assertEquals(i, PinnedSectionMetrics.Histogram.bucketOf(upper));
+            assertEquals(i + 1, PinnedSectionMetrics.Histogram.bucketOf(upper + 1));
+        }
+    }
+
+    @Test
+    public void histogram_percentiles() throws Exception {
+        PinnedSectionMetrics.Histogram histogram = new PinnedSectionMetrics.Histogram();
+        assertEquals(0, histogram.getPercentile(50));
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050000, histogram.getSum());
+        assertEquals(50500, histogram.getMean());
+        assertEquals(100000, histogram.getMax());
+
+        // 50000 lies in [32768, 65535]
+        assertEquals(65535, histogram.getPercentile(50));
+        // the top bucket is capped at the max value
+        assertEquals(100000, histogram.getPercentile(100));
+        assertEquals(1023, histogram.getPercentile(0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getBucketCount(PinnedSectionMetrics.Histogram.bucketOf(50000)));
+    }
+
+    @Test
+    public void metrics_countsEvents() throws Exception {
+        PinnedSectionMetrics metrics = new PinnedSectionMetrics();
+        metrics.onPinnedSectionObtained(false);
+        metrics.onPinnedSectionObtained(true);
+        metrics.onPinnedSectionObtained(true);
+        metrics.onPinnedSectionTornDown(0);
+        metrics.onPinnedSectionBound(500);
+        metrics.onPinnedSectionDrawn(-1);
+
+        assertEquals(1, metrics.getCreateCount());
+        assertEquals(2, metrics.getReuseCount());
+        assertEquals(1, metrics.getTeardownCount());
+        assertEquals(1, metrics.getBindTime().getCount());
+        assertEquals(0, metrics.getMeasureTime().getCount());
+        assertEquals(1, metrics.getDrawTime().getBucketCount(0));
+
+        metrics.reset();
+        assertEquals(0, metrics.getReuseCount());
+        assertEquals(0, metrics.getBindTime().getCount());
+    }
+}
@@ -0,0 +1,25 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for the push-off progress driving {@link PinnedSectionTransitions}.
+ */
+public class PinnedSectionTransitionsTest {
+
+    @Test
+    public void progress_followsPushOff() throws Exception {
+        assertEquals(0f, PinnedSectionTransitions.getProgress(10, 100), 0);
+        assertEquals(0f, PinnedSectionTransitions.getProgress(0, 100), 0);
+        assertEquals(0.25f, PinnedSectionTransitions.getProgress(-25, 100), 0);
+        assertEquals(1f, PinnedSectionTransitions.getProgress(-100, 100), 0);
+    }
+
+    @Test
+    public void progress_isClamped() throws Exception {
+        assertEquals(1f, PinnedSectionTransitions.getProgress(-150, 100), 0);
+        assertEquals(0f, PinnedSectionTransitions.getProgress(-10, 0), 0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.vk.pinnedsectionrecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link SectionIndex}, checked against a linear scan of the same data.
+ */
+public class SectionIndexTest {
+
+    private final List<Boolean> mItems = new ArrayList<>();
+
+    private final PinnedSectionRecyclerView.Adapter mAdapter = new PinnedSectionRecyclerView.Adapter() {
+        @Override
+        public boolean isPinnedSectionItem(int position) {
+            return mItems.get(position);
+        }
+
+        @Override
+        public int findSectionPosition(int position) {
+            for (int i = position; i >= 0; i--) {
+                if (mItems.get(i)) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public int findNextSectionPosition(int position) {
+            for (int i = position + 1; i < mItems.size(); i++) {
+                if (mItems.get(i)) return i;
+            }
+            return -1;
+        }
+    };
+
+    private SectionIndex mIndex;
+
+    @Before
+    public void setUp() throws Exception {
+        // sections at 0, 3, 4 and 8
+        boolean[] items = {true, false, false, true, true, false, false, false, true, false};
+        for (boolean item : items) {
+            mItems.add(item);
+        }
+        mIndex = new SectionIndex();
+        mIndex.build(mAdapter, mItems.size());
+    }
+
+    @Test
+    public void build_findsAllSections() throws Exception {
+        assertEquals(4, mIndex.size());
+        assertEquals(3, mIndex.getSectionPosition(1));
+        assertEquals(2, mIndex.getSectionIndex(4));
+        assertMatchesLinearScan();
+    }
+
+    @Test
+    public void positionBeforeFirstSection() throws Exception {
+        mItems.add(0, false);
+        mIndex.onItemRangeInserted(mAdapter, 0, 1);
+
+        assertEquals(-1, mIndex.getSectionIndex(0));
+        assertEquals(-1, mIndex.findSectionPosition(0));
+        assertEquals(1, mIndex.findNextSectionPosition(0));
+        assertMatchesLinearScan();
+    }
+
+    @Test
+    public void insert_shiftsAndAddsSections() throws Exception {
+        mItems.add(5, true);
+        mItems.add(6, false);
+        mIndex.onItemRangeInserted(mAdapter, 5, 2);
+
+        assertEquals(5, mIndex.size());
+        assertMatchesLinearScan();
+    }
+
+    @Test
+    public void remove_dropsAndShiftsSections() throws Exception {
+        mItems.subList(2, 5).clear();
+        mIndex.onItemRangeRemoved(2, 3);
+
+        assertEquals(2, mIndex.size());
+        assertMatchesLinearScan();
+    }
+
+    @Test
+    public void change_rescansRange() throws Exception {
+        mItems.set(3, false);
+        mItems.set(6, true);
+        mIndex.onItemRangeChanged(mAdapter, 3, 4);
+
+        assertEquals(4, mIndex.size());
+        assertMatchesLinearScan();
+    }
+
+    @Test
+    public void move_keepsIndexSorted() throws Exception {
+        mItems.add(6, mItems.remove(0));
+        mIndex.onItemRangeMoved(mAdapter, 0, 6, 1);
+
+        assertMatchesLinearScan();
+    }
+
+    private void assertMatchesLinearScan() {
+        for (int i = 0; i < mItems.size(); i++) {
+            assertEquals("section of " + i, mAdapter.findSectionPosition(i), mIndex.findSectionPosition(i));
+            assertEquals("next section of " + i, mAdapter.findNextSectionPosition(i), mIndex.findNextSectionPosition(i));
+        }
+    }
+}